@@ -0,0 +1,38 @@
+package com.spring.ruleengine.config;
+
+import com.spring.ruleengine.service.RuleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Precompiles the stored rules once the application has started, so the first requests after a deploy
+// find them already parsed. A failure here only costs the warm-up; rules still load on first use.
+@Component
+public class RuleCacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleCacheWarmer.class);
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Value("${rule.warmup.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int loaded = ruleService.warmUp();
+            log.info("Precompiled {} stored rules in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Rule warm-up failed, stored rules will be compiled on first use: {}", e.getMessage());
+        }
+    }
+}
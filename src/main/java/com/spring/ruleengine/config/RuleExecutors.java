@@ -0,0 +1,73 @@
+package com.spring.ruleengine.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Holds the rule engine's thread pools. They are not exposed as Executor beans so that
+// Spring Boot still creates its own applicationTaskExecutor for MVC async handling.
+@Component
+public class RuleExecutors {
+
+    private final ExecutorService evaluationExecutor;
+    private final ExecutorService persistenceExecutor; // null unless requests run on virtual threads
+    private final ScheduledExecutorService reloadExecutor = Executors.newSingleThreadScheduledExecutor(namedThreads("rule-reload-"));
+
+    public RuleExecutors(@Value("${rule.batch.parallelism:0}") int parallelism,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                         @Value("${rule.persistence.pool-size:8}") int persistencePoolSize,
+                         @Value("${rule.persistence.queue-capacity:1000}") int persistenceQueueCapacity) {
+        // 0 means one thread per available processor
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.evaluationExecutor = Executors.newFixedThreadPool(threads, namedThreads("rule-eval-"));
+
+        // With virtual threads there is no request pool to bound blocking JPA calls, so writes get their own
+        // small pool; a full queue rejects the write instead of letting it pile up
+        this.persistenceExecutor = virtualThreads
+                ? new ThreadPoolExecutor(persistencePoolSize, persistencePoolSize, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(persistenceQueueCapacity), namedThreads("rule-db-"))
+                : null;
+    }
+
+    // Pool used to evaluate batch requests in parallel
+    public ExecutorService getEvaluationExecutor() {
+        return evaluationExecutor;
+    }
+
+    // Bounded pool for rule writes, or null when they run on the request thread
+    public ExecutorService getPersistenceExecutor() {
+        return persistenceExecutor;
+    }
+
+    // Single thread that rebuilds and publishes rule set snapshots, so reloads never overlap
+    public ScheduledExecutorService getReloadExecutor() {
+        return reloadExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluationExecutor.shutdown();
+        reloadExecutor.shutdown();
+        if (persistenceExecutor != null) {
+            persistenceExecutor.shutdown();
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.spring.ruleengine.config;
+
+import com.spring.ruleengine.model.RuleEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+// Moves the rule id sequence past the ids already in use. A database created before ids came from a
+// sequence gets a new one starting at 1, which would hand out ids that are taken.
+@Component
+public class RuleIdSequence {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleIdSequence.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Hibernate creates or updates the schema when the factory is built, so the sequence exists by now
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void align() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM rule_entity", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // Hibernate hands out the block below each sequence value, so the next value must clear it
+        long floor = maxId + RuleEntity.ID_BLOCK_SIZE + 1;
+
+        if (isTable(RuleEntity.ID_SEQUENCE)) {
+            // MySQL has no sequences; Hibernate emulates one with a single-row next_val table
+            int updated = jdbcTemplate.update("UPDATE " + RuleEntity.ID_SEQUENCE + " SET next_val = ? WHERE next_val < ?",
+                    floor, floor);
+            if (updated > 0) {
+                log.info("Moved {} to {}, past the existing rule ids", RuleEntity.ID_SEQUENCE, floor);
+            }
+            return;
+        }
+
+        String nextValue = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport().getSequenceNextValString(RuleEntity.ID_SEQUENCE);
+        Long next = jdbcTemplate.queryForObject(nextValue, Long.class);
+        if (next != null && next < floor) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + RuleEntity.ID_SEQUENCE + " RESTART WITH " + floor);
+            log.info("Moved {} to {}, past the existing rule ids", RuleEntity.ID_SEQUENCE, floor);
+        }
+    }
+
+    private boolean isTable(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            for (String candidate : new String[]{name, name.toUpperCase()}) {
+                try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, candidate,
+                        new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
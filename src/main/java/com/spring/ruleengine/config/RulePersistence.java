@@ -0,0 +1,43 @@
+package com.spring.ruleengine.config;
+
+import com.spring.ruleengine.model.RuleEntity;
+import com.spring.ruleengine.model.RuleSetVersion;
+import com.spring.ruleengine.repository.RuleRepository;
+import com.spring.ruleengine.repository.RuleSetVersionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
+
+import java.util.List;
+
+// JPA entities and repositories; the rule set version row and its repository exist only in cluster mode
+@Configuration
+@EnableJpaRepositories(basePackageClasses = RuleRepository.class, excludeFilters =
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = RuleSetVersionRepository.class))
+public class RulePersistence {
+
+    @Bean
+    public PersistenceManagedTypes persistenceManagedTypes(ResourceLoader resourceLoader,
+                                                           @Value("${rule.cluster.enabled:false}") boolean cluster) {
+        PersistenceManagedTypes scanned = new PersistenceManagedTypesScanner(resourceLoader)
+                .scan(RuleEntity.class.getPackageName());
+        List<String> entities = scanned.getManagedClassNames().stream()
+                .filter(name -> cluster || !name.equals(RuleSetVersion.class.getName()))
+                .toList();
+        return PersistenceManagedTypes.of(entities, scanned.getManagedPackages());
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "rule.cluster.enabled", havingValue = "true")
+    @EnableJpaRepositories(basePackageClasses = RuleSetVersionRepository.class, includeFilters =
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = RuleSetVersionRepository.class))
+    static class ClusterRepositories {
+    }
+}
@@ -0,0 +1,84 @@
+package com.spring.ruleengine.config;
+
+import com.spring.ruleengine.model.RuleSetVersion;
+import com.spring.ruleengine.repository.RuleSetVersionRepository;
+import com.spring.ruleengine.service.RuleCluster;
+import com.spring.ruleengine.service.RuleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// Polls for rules written by other instances or directly to the database. Standalone, each poll is the
+// rule table's aggregate signature query. In cluster mode it reads the version row that every instance
+// bumps after a write, a primary-key lookup, and only checks the rule table when that moved. Local saves
+// and deletes request a reload themselves and do not wait for the next poll.
+@Component
+public class RuleSetReloader {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSetReloader.class);
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Autowired
+    private RuleExecutors ruleExecutors;
+
+    @Autowired
+    private RuleCluster ruleCluster;
+
+    @Autowired(required = false) // only registered in cluster mode
+    private RuleSetVersionRepository ruleSetVersionRepository;
+
+    @Value("${rule.reload.interval-ms:2000}")
+    private long intervalMillis;
+
+    private Long lastVersion; // only touched on the reload thread
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (ruleCluster.isEnabled()) {
+            createVersionRow();
+        }
+        if (intervalMillis <= 0) {
+            return;
+        }
+        ruleExecutors.getReloadExecutor().scheduleWithFixedDelay(
+                this::poll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        // An exception would cancel the schedule, so a failed poll is logged and retried next time
+        try {
+            if (ruleCluster.isEnabled()) {
+                Long version = ruleSetVersionRepository.currentVersion();
+                if (Objects.equals(version, lastVersion)) {
+                    return;
+                }
+                lastVersion = version;
+            }
+            ruleService.requestReload();
+        } catch (RuntimeException e) {
+            log.warn("Rule reload poll failed: {}", e.getMessage());
+        }
+    }
+
+    // The first instance to start creates the row; the others find it or lose the insert race harmlessly
+    private void createVersionRow() {
+        if (ruleSetVersionRepository.existsById(RuleSetVersion.ROW_ID)) {
+            return;
+        }
+        try {
+            ruleSetVersionRepository.save(new RuleSetVersion(RuleSetVersion.ROW_ID, 0));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Rule set version row was created by another instance");
+        }
+    }
+}
@@ -2,20 +2,36 @@ package com.spring.ruleengine.controller;
 
 import com.spring.ruleengine.exception.InvalidDataFormatException;
 import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.exception.KeyNotFoundException;
 import com.spring.ruleengine.exception.MissingAttributeException;
+import com.spring.ruleengine.exception.PeerUnavailableException;
+import com.spring.ruleengine.service.EvaluationBackend;
+import com.spring.ruleengine.service.RuleCache;
+import com.spring.ruleengine.service.RuleCluster;
+import com.spring.ruleengine.service.RuleMetrics;
 import com.spring.ruleengine.service.RuleService;
-import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.service.RuleSessionService;
+import com.spring.ruleengine.service.RuleStreamService;
+import com.spring.ruleengine.service.RuleWriteBehind;
+import com.spring.ruleengine.model.Column;
+import com.spring.ruleengine.model.ColumnBatch;
+import com.spring.ruleengine.model.CompiledRule;
 import com.spring.ruleengine.model.RuleEntity;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/rules")
@@ -24,6 +40,21 @@ public class RuleController {
     @Autowired
     private RuleService ruleService;
 
+    @Autowired
+    private RuleStreamService ruleStreamService;
+
+    @Autowired
+    private RuleWriteBehind ruleWriteBehind;
+
+    @Autowired
+    private RuleSessionService ruleSessionService;
+
+    @Autowired(required = false)
+    private RuleCluster ruleCluster;
+
+    @Autowired(required = false)
+    private RuleMetrics ruleMetrics = RuleMetrics.noop();
+
     // Exception handler for InvalidRuleFormatException
     @ExceptionHandler(InvalidRuleFormatException.class)
     public ResponseEntity<String> handleInvalidRuleFormatException(InvalidRuleFormatException ex) {
@@ -42,6 +73,24 @@ public class RuleController {
         return ResponseEntity.badRequest().body("There was a problem with your input: " + ex.getMessage());
     }
 
+    // Exception handler for KeyNotFoundException
+    @ExceptionHandler(KeyNotFoundException.class)
+    public ResponseEntity<String> handleKeyNotFoundException(KeyNotFoundException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    // Exception handler for writes rejected by a full persistence queue
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecution(RejectedExecutionException ex) {
+        return new ResponseEntity<>("Too many pending rule writes, please retry.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // Exception handler for a cluster node that did not answer a scattered match
+    @ExceptionHandler(PeerUnavailableException.class)
+    public ResponseEntity<String> handlePeerUnavailable(PeerUnavailableException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     // Endpoint to create a rule
     @PostMapping("/create")
     public ResponseEntity<?> createRule(@RequestBody Map<String, String> requestBody) {
@@ -49,20 +98,15 @@ public class RuleController {
 
         // Validate the ruleString
         if (ruleString == null || ruleString.trim().isEmpty()) {
-            return ResponseEntity.badRequest().body("Please enter a rule string.");
+            return reject("empty_rule", "Please enter a rule string.");
         }
 
-        // Validate the rule format using RuleService
+        // Create the rule (ASTNode representation); the parser reports a malformed rule, as on /evaluate
         try {
-            ruleService.validateRule(ruleString);
+            return ResponseEntity.ok(ruleService.createRule(ruleString));
         } catch (InvalidRuleFormatException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return reject("invalid_format", e.getMessage());
         }
-
-
-        // Create the rule (ASTNode representation)
-        ASTNode ruleNode = ruleService.createRule(ruleString);
-        return ResponseEntity.ok(ruleNode);
     }
 
 
@@ -75,24 +119,22 @@ public class RuleController {
 
         // Validate the rules input
         if (rules == null || rules.isEmpty() || rules.stream().allMatch(String::isEmpty)) {
-            return ResponseEntity.badRequest().body("Please enter at least one rule.");
-        }
-        try {
-            ruleService.validateRule(String.valueOf(rules));
-        } catch (InvalidRuleFormatException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return reject("empty_rule", "Please enter at least one rule.");
         }
 
         // Check for duplicate rules
         List<String> duplicateRules = findDuplicateRules(rules);
         if (!duplicateRules.isEmpty()) {
-            return ResponseEntity.badRequest().body("Duplicate rules detected: " + String.join(", ", duplicateRules));
+            return reject("duplicate_rule", "Duplicate rules detected: " + String.join(", ", duplicateRules));
         }
 
 
-        // Combine the rules into one ASTNode
-        ASTNode combinedRule = ruleService.combineRules(rules);
-        return ResponseEntity.ok(combinedRule);
+        // Combine the rules into one ASTNode; a rule that does not parse is reported as on /evaluate
+        try {
+            return ResponseEntity.ok(ruleService.combineRules(rules));
+        } catch (InvalidRuleFormatException e) {
+            return reject("invalid_format", e.getMessage());
+        }
     }
 
 
@@ -101,57 +143,278 @@ public class RuleController {
     public ResponseEntity<?> evaluateRule(@RequestBody Map<String, Object> request) {
         String ruleString = (String) request.get("ruleString");
         Map<String, Object> data = (Map<String, Object>) request.get("data");
+        Object backendName = request.get("backend");
 
         // Validate the ruleString
         if (ruleString == null || ruleString.trim().isEmpty()) {
-            return ResponseEntity.badRequest().body("Please enter a rule string.");
+            return reject("empty_rule", "Please enter a rule string.");
         }
 
         // Validate the data for evaluation
         if (data == null || data.isEmpty()) {
-            return ResponseEntity.badRequest().body("Please provide data for evaluation.");
+            return reject("missing_data", "Please provide data for evaluation.");
         }
 
-        // Validate the rule format using RuleService
+        // Parse the rule once (cached); every check below is a set lookup against the compiled rule
+        CompiledRule rule;
         try {
-            ruleService.validateRule(ruleString);
+            rule = ruleService.getCompiledRule(ruleString);
         } catch (InvalidRuleFormatException e) {
-            return ResponseEntity.badRequest().body("Invalid rule format: " + e.getMessage());
+            return reject("invalid_format", e.getMessage());
         }
 
-        // Validate each attribute in the rule
-        for (String key : data.keySet()) {
-            try {
-                ruleService.validateAttribute(key);  // Check if the attribute exists in the catalog
-            } catch (InvalidRuleFormatException e) {
-                return ResponseEntity.badRequest().body("Invalid attribute in rule: " + key);
+        ResponseEntity<String> rejected = validateData(rule, data);
+        if (rejected != null) {
+            return rejected;
+        }
+
+        // Evaluate the rule with the requested backend, or the configured default
+        return evaluate(rule, data, backendName, request.get("trace"));
+    }
+
+    // Endpoint to evaluate a stored rule by id, using the AST persisted with it
+    @PostMapping("/{id}/evaluate")
+    public ResponseEntity<?> evaluateStoredRule(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+        Map<String, Object> data = (Map<String, Object>) request.get("data");
+        Object backendName = request.get("backend");
+
+        // Validate the data for evaluation
+        if (data == null || data.isEmpty()) {
+            return reject("missing_data", "Please provide data for evaluation.");
+        }
+
+        // Unknown ids are answered with 404 by the exception handler
+        CompiledRule rule = ruleService.getCompiledRule(id);
+
+        ResponseEntity<String> rejected = validateData(rule, data);
+        if (rejected != null) {
+            return rejected;
+        }
+
+        return evaluate(rule, data, backendName, request.get("trace"));
+    }
+
+    // With "trace": true the response is the result plus a step per node instead of a bare boolean
+    private ResponseEntity<?> evaluate(CompiledRule rule, Map<String, Object> data, Object backendName, Object trace) {
+        try {
+            if (Boolean.TRUE.equals(trace)) {
+                return ResponseEntity.ok(ruleService.traceRule(rule, data));
             }
+            EvaluationBackend backend = EvaluationBackend.from(
+                    backendName == null ? null : backendName.toString(), ruleService.getDefaultBackend());
+            return ResponseEntity.ok(ruleService.evaluateRule(rule, data, backend));
+        } catch (Exception e) {
+            return reject("evaluation_error", "Evaluation error: " + e.getMessage());
         }
+    }
 
-        // Check if the data contains all necessary fields for the rule
-        List<String> missingFields = findMissingFields(ruleString, data);
-        if (!missingFields.isEmpty()) {
-            return ResponseEntity.badRequest().body("Rule references non-existing field(s): " + String.join(", ", missingFields));
+    // Endpoint to evaluate a stored rule by id against many records
+    @PostMapping("/{id}/evaluate/batch")
+    public ResponseEntity<?> evaluateStoredRuleBatch(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+        Map<String, Object> batchRequest = new HashMap<>(request);
+        batchRequest.remove("ruleString");
+        batchRequest.put("ruleId", id);
+        return evaluateBatch(batchRequest);
+    }
+
+    // Endpoint to evaluate one rule (by string or stored id) against many records
+    @PostMapping("/evaluate/batch")
+    public ResponseEntity<?> evaluateBatch(@RequestBody Map<String, Object> request) {
+        String ruleString = (String) request.get("ruleString");
+        Object ruleId = request.get("ruleId");
+        List<Map<String, Object>> records = (List<Map<String, Object>>) request.get("records");
+        Object backendName = request.get("backend");
+        boolean parallel = Boolean.TRUE.equals(request.get("parallel"));
+
+        // Validate the rule reference
+        if ((ruleString == null || ruleString.trim().isEmpty()) && ruleId == null) {
+            return ResponseEntity.badRequest().body("Please enter a rule string or rule id.");
+        }
+
+        // Validate the records for evaluation
+        if (records == null || records.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please provide records for evaluation.");
+        }
+
+        // Parse the rule once and evaluate every record against it
+        boolean[] results;
+        try {
+            CompiledRule rule = ruleId != null
+                    ? ruleService.getCompiledRule(Long.valueOf(ruleId.toString()))
+                    : ruleService.getCompiledRule(ruleString);
+            EvaluationBackend backend = EvaluationBackend.from(
+                    backendName == null ? null : backendName.toString(), ruleService.getDefaultBackend());
+            results = ruleService.evaluateBatch(rule, records, backend, parallel);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Evaluation error: " + e.getMessage());
+        }
+
+        return ResponseEntity.ok(results);
+    }
+
+    // Endpoint to evaluate a newline-delimited JSON stream of records, streaming one result line per record
+    @PostMapping(value = "/evaluate/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void evaluateStream(@RequestParam(required = false) String ruleString,
+                               @RequestParam(required = false) Long ruleId,
+                               @RequestParam(required = false) String backend,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Validate the rule reference
+        if ((ruleString == null || ruleString.trim().isEmpty()) && ruleId == null) {
+            throw new InvalidRuleFormatException("Please enter a rule string or rule id.");
+        }
+
+        // Compile the rule before the response is committed so rule errors still return 400
+        CompiledRule rule = ruleId != null ? ruleService.getCompiledRule(ruleId) : ruleService.getCompiledRule(ruleString);
+        EvaluationBackend evaluationBackend = EvaluationBackend.from(backend, ruleService.getDefaultBackend());
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ruleStreamService.evaluateStream(rule, evaluationBackend, request.getInputStream(), response.getOutputStream());
+    }
+
+    // Endpoint to evaluate one rule over column-oriented rows, returning a bitset of matching rows
+    @PostMapping("/evaluate/columnar")
+    public ResponseEntity<?> evaluateColumnar(@RequestBody Map<String, Object> request) {
+        String ruleString = (String) request.get("ruleString");
+        Object ruleId = request.get("ruleId");
+        Object rowCount = request.get("rowCount");
+        Map<String, Map<String, Object>> columns = (Map<String, Map<String, Object>>) request.get("columns");
+
+        // Validate the rule reference
+        if ((ruleString == null || ruleString.trim().isEmpty()) && ruleId == null) {
+            return ResponseEntity.badRequest().body("Please enter a rule string or rule id.");
+        }
+
+        // Validate the columns for evaluation
+        if (!(rowCount instanceof Number) || columns == null || columns.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please provide rowCount and columns for evaluation.");
         }
 
-        // Evaluate the rule
-        boolean result;
+        long[] results;
         try {
-            result = ruleService.evaluateRule(ruleService.createRule(ruleString), data);
+            ColumnBatch batch = new ColumnBatch(((Number) rowCount).intValue());
+            for (Map.Entry<String, Map<String, Object>> column : columns.entrySet()) {
+                batch.addColumn(column.getKey(), toColumn(column.getKey(), column.getValue()));
+            }
+            CompiledRule rule = ruleId != null
+                    ? ruleService.getCompiledRule(Long.valueOf(ruleId.toString()))
+                    : ruleService.getCompiledRule(ruleString);
+            results = ruleService.evaluateColumnar(rule, batch);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Evaluation error: " + e.getMessage());
         }
 
-        // Return the result of the evaluation
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(results);
+    }
+
+    // Endpoint to find every stored rule that matches the data
+    @PostMapping("/match")
+    public ResponseEntity<?> matchRules(@RequestBody Map<String, Object> request) {
+        Map<String, Object> data = (Map<String, Object>) request.get("data");
+
+        // Validate the data for matching
+        if (data == null || data.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please provide data for evaluation.");
+        }
+
+        return ResponseEntity.ok(ruleService.matchAllRules(data));
+    }
+
+    // Endpoint used by the other cluster nodes: matches the record against this instance's partition only
+    @PostMapping("/match/local")
+    public ResponseEntity<?> matchLocalRules(@RequestHeader(value = RuleCluster.SECRET_HEADER, required = false) String secret,
+                                             @RequestBody Map<String, Object> request) {
+        if (ruleCluster == null || !ruleCluster.acceptsPeer(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only cluster nodes may call this endpoint.");
+        }
+        Map<String, Object> data = (Map<String, Object>) request.get("data");
+
+        // Validate the data for matching
+        if (data == null || data.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please provide data for evaluation.");
+        }
+
+        return ResponseEntity.ok(ruleService.matchLocalRules(data));
+    }
+
+    // Endpoint to open an incremental evaluation session for a record, returning its id and matching rules
+    @PostMapping("/sessions")
+    public ResponseEntity<?> openSession(@RequestBody Map<String, Object> request) {
+        Map<String, Object> data = (Map<String, Object>) request.get("data");
+
+        // Validate the data for matching
+        if (data == null || data.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please provide data for evaluation.");
+        }
+
+        return ResponseEntity.ok(ruleSessionService.open(data));
     }
 
+    // Endpoint to change some attributes of a session's record (null removes one); returns the rules that flipped
+    @PatchMapping("/sessions/{sessionId}")
+    public ResponseEntity<?> updateSession(@PathVariable String sessionId, @RequestBody Map<String, Object> request) {
+        Map<String, Object> changes = (Map<String, Object>) request.get("changes");
+
+        // Validate the changes
+        if (changes == null || changes.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please provide changes for the session.");
+        }
+
+        return ResponseEntity.ok(ruleSessionService.update(sessionId, changes));
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> closeSession(@PathVariable String sessionId) {
+        ruleSessionService.close(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Endpoint to inspect the compiled rule cache
+    @GetMapping("/cache/stats")
+    public ResponseEntity<RuleCache.Stats> getCacheStats() {
+        return ResponseEntity.ok(ruleService.getCacheStats());
+    }
+
+    // Endpoint to write the stored rules to the snapshot file mapped at the next start
+    @PostMapping("/snapshot")
+    public ResponseEntity<?> exportSnapshot() {
+        if (!ruleService.isSnapshotConfigured()) {
+            return ResponseEntity.badRequest().body("Please set rule.snapshot.path to export a snapshot.");
+        }
+        return ResponseEntity.ok(ruleService.exportSnapshot());
+    }
+
+    // Writes complete asynchronously so a slow database does not hold the request thread
     @PostMapping("/save")
-    public ResponseEntity<RuleEntity> saveRule(@RequestBody String ruleString) {
-        RuleEntity savedRule = ruleService.saveRule(ruleString);
-        return ResponseEntity.ok(savedRule);
+    public CompletableFuture<ResponseEntity<RuleEntity>> saveRule(@RequestBody String ruleString) {
+        CompletableFuture<RuleEntity> saved = ruleWriteBehind.isEnabled()
+                ? ruleWriteBehind.submit(ruleString)
+                : ruleService.saveRuleAsync(ruleString);
+        return saved.thenApply(ResponseEntity::ok);
+    }
+
+    // Endpoint to save many rules; responds once all of them are committed, in request order
+    @PostMapping("/save/bulk")
+    public CompletableFuture<ResponseEntity<?>> saveRules(@RequestBody Map<String, List<String>> request) {
+        List<String> rules = request.get("rules");
+
+        // Validate the rules input
+        if (rules == null || rules.isEmpty() || rules.stream().anyMatch(r -> r == null || r.isBlank())) {
+            return CompletableFuture.completedFuture(reject("empty_rule", "Please enter at least one rule and no empty rules."));
+        }
+
+        return ruleWriteBehind.submitAll(rules).thenApply(ResponseEntity::ok);
     }
 
+    @DeleteMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Void>> deleteRule(@PathVariable Long id) {
+        return ruleService.deleteRuleAsync(id).thenApply(done -> ResponseEntity.noContent().build());
+    }
+
+    // Counts the rejected request by reason and builds the 400 response
+    private ResponseEntity<String> reject(String reason, String message) {
+        ruleMetrics.recordValidationFailure(reason);
+        return ResponseEntity.badRequest().body(message);
+    }
 
     private boolean isValidRule(String ruleString) {
         // Improved regex pattern for rule validation
@@ -173,18 +436,57 @@ public class RuleController {
         return duplicates.stream().toList(); // Return list of duplicate rules
     }
 
-    private List<String> findMissingFields(String ruleString, Map<String, Object> data) {
-        // Use a regex to capture the variable names correctly
-        String regex = "([a-zA-Z_][a-zA-Z0-9_]*)\\s*(>|<|>=|<=|=|!=)\\s*(['\"]?)([\\w\\s]+)(['\"]?)"; // Updated to handle string values
-        Matcher matcher = Pattern.compile(regex).matcher(ruleString);
-        HashSet<String> missingFields = new HashSet<>();
+    private Column toColumn(String attribute, Map<String, Object> spec) {
+        String type = spec == null ? null : (String) spec.get("type");
+        List<?> values = spec == null ? null : (List<?>) spec.get(
+                "dictionary".equalsIgnoreCase(type) ? "codes" : "values");
+        if (type == null || values == null) {
+            throw new InvalidDataFormatException("Column '" + attribute + "' needs a type and values.");
+        }
 
-        while (matcher.find()) {
-            String field = matcher.group(1); // Capture the field (first group)
-            if (!data.containsKey(field)) {
-                missingFields.add(field); // Collect missing fields
+        switch (type.toLowerCase()) {
+            case "int":
+                int[] ints = new int[values.size()];
+                for (int i = 0; i < ints.length; i++) ints[i] = ((Number) values.get(i)).intValue();
+                return Column.ofInts(ints);
+            case "long":
+                long[] longs = new long[values.size()];
+                for (int i = 0; i < longs.length; i++) longs[i] = ((Number) values.get(i)).longValue();
+                return Column.ofLongs(longs);
+            case "double":
+                double[] doubles = new double[values.size()];
+                for (int i = 0; i < doubles.length; i++) doubles[i] = ((Number) values.get(i)).doubleValue();
+                return Column.ofDoubles(doubles);
+            case "dictionary":
+                List<String> dictionary = (List<String>) spec.get("dictionary");
+                if (dictionary == null) {
+                    throw new InvalidDataFormatException("Column '" + attribute + "' needs a dictionary.");
+                }
+                int[] codes = new int[values.size()];
+                for (int i = 0; i < codes.length; i++) {
+                    codes[i] = ((Number) values.get(i)).intValue();
+                    if (codes[i] < 0 || codes[i] >= dictionary.size()) {
+                        throw new InvalidDataFormatException("Column '" + attribute + "' has an invalid code at row " + i + ".");
+                    }
+                }
+                return Column.ofDictionary(dictionary.toArray(new String[0]), codes);
+            default:
+                throw new InvalidDataFormatException("Unknown column type for '" + attribute + "': " + type);
+        }
+    }
+
+    // Rejects data with attributes outside the catalog or without every attribute the rule references
+    private ResponseEntity<String> validateData(CompiledRule rule, Map<String, Object> data) {
+        for (String key : data.keySet()) {
+            if (!ruleService.isKnownAttribute(key)) {
+                return reject("unknown_attribute", "Invalid attribute in rule: " + key);
             }
         }
-        return missingFields.stream().toList(); // Return list of missing fields
+
+        List<String> missingFields = ruleService.findMissingAttributes(rule, data);
+        if (!missingFields.isEmpty()) {
+            return reject("missing_field", "Rule references non-existing field(s): " + String.join(", ", missingFields));
+        }
+        return null;
     }
 }
@@ -0,0 +1,7 @@
+package com.spring.ruleengine.exception;
+
+public class PeerUnavailableException extends RuntimeException {
+    public PeerUnavailableException(String message) {
+        super(message);
+    }
+}
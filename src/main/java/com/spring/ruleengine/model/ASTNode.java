@@ -1,5 +1,7 @@
 package com.spring.ruleengine.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,6 +9,13 @@ public class ASTNode {
     private String type; // "operator" for AND/OR, "operand" for condition
     private List<ASTNode> children; // List of child nodes (for operators)
     private String value; // for operands (e.g., "age > 30")
+    @JsonIgnore
+    private Condition condition; // pre-parsed form of value, null if the operand is malformed
+
+    // Used by Jackson when a stored AST is read back
+    public ASTNode() {
+        this.children = new ArrayList<>();
+    }
 
     public ASTNode(String type) {
         this.type = type;
@@ -35,6 +44,14 @@ public class ASTNode {
         return value;
     }
 
+    public Condition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(Condition condition) {
+        this.condition = condition;
+    }
+
     public void setType(String type) {
         this.type = type;
     }
@@ -0,0 +1,109 @@
+package com.spring.ruleengine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The attributes records and rules may use, each with a slot number and a declared type. Slots are numbered
+// in declaration order, so a record bound to the schema is a set of arrays indexed by slot and a compiled rule
+// can resolve each attribute to its slot once.
+public final class AttributeSchema {
+
+    private final Map<String, Integer> slots;
+    private final String[] names;
+    private final AttributeType[] types;
+    private final List<List<String>> enumValues; // by slot, empty unless the attribute is an ENUM
+    private final List<Map<String, Integer>> enumCodes; // by slot, index of each ENUM value
+
+    private AttributeSchema(Builder builder) {
+        this.slots = Map.copyOf(builder.slots);
+        this.names = builder.names.toArray(new String[0]);
+        this.types = builder.types.toArray(new AttributeType[0]);
+        this.enumValues = List.copyOf(builder.enumValues);
+        List<Map<String, Integer>> codes = new ArrayList<>(names.length);
+        for (List<String> values : enumValues) {
+            Map<String, Integer> byValue = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                byValue.put(values.get(i), i);
+            }
+            codes.add(Map.copyOf(byValue));
+        }
+        this.enumCodes = List.copyOf(codes);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Slot of the attribute, or -1 if it is not in the schema
+    public int getSlot(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    public boolean contains(String name) {
+        return slots.containsKey(name);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int slot) {
+        return names[slot];
+    }
+
+    public AttributeType getType(int slot) {
+        return types[slot];
+    }
+
+    public List<String> getEnumValues(int slot) {
+        return enumValues.get(slot);
+    }
+
+    // Index of the value in an ENUM attribute's list, or -1 if it is not listed
+    public int getEnumCode(int slot, String value) {
+        Integer code = enumCodes.get(slot).get(value);
+        return code == null ? -1 : code;
+    }
+
+    public static final class Builder {
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<AttributeType> types = new ArrayList<>();
+        private final List<List<String>> enumValues = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(AttributeType type, String... names) {
+            if (type == AttributeType.ENUM) {
+                throw new IllegalArgumentException("ENUM attributes are declared with addEnum");
+            }
+            for (String name : names) {
+                add(name, type, Collections.emptyList());
+            }
+            return this;
+        }
+
+        public Builder addEnum(String name, String... values) {
+            return add(name, AttributeType.ENUM, List.of(values));
+        }
+
+        private Builder add(String name, AttributeType type, List<String> values) {
+            if (slots.putIfAbsent(name, names.size()) != null) {
+                throw new IllegalArgumentException("Attribute declared twice: " + name);
+            }
+            names.add(name);
+            types.add(type);
+            enumValues.add(values);
+            return this;
+        }
+
+        public AttributeSchema build() {
+            return new AttributeSchema(this);
+        }
+    }
+}
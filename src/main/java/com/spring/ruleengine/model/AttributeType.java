@@ -0,0 +1,9 @@
+package com.spring.ruleengine.model;
+
+// Declared type of a schema attribute, which decides how its values are stored in a SlotRecord
+public enum AttributeType {
+    INT, // whole numbers, stored as a long
+    DOUBLE, // decimal numbers, stored as a double
+    STRING, // free text
+    ENUM // one of a fixed list of strings, stored as its index in the list
+}
@@ -0,0 +1,72 @@
+package com.spring.ruleengine.model;
+
+// One attribute's values for every row of a ColumnBatch, stored as a primitive array
+public final class Column {
+
+    public enum Kind { INT, LONG, DOUBLE, DICTIONARY }
+
+    private final Kind kind;
+    private final int[] ints; // INT values, or DICTIONARY codes into the dictionary
+    private final long[] longs;
+    private final double[] doubles;
+    private final String[] dictionary; // distinct strings of a DICTIONARY column
+
+    private Column(Kind kind, int[] ints, long[] longs, double[] doubles, String[] dictionary) {
+        this.kind = kind;
+        this.ints = ints;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.dictionary = dictionary;
+    }
+
+    public static Column ofInts(int[] values) {
+        return new Column(Kind.INT, values, null, null, null);
+    }
+
+    public static Column ofLongs(long[] values) {
+        return new Column(Kind.LONG, null, values, null, null);
+    }
+
+    public static Column ofDoubles(double[] values) {
+        return new Column(Kind.DOUBLE, null, null, values, null);
+    }
+
+    public static Column ofDictionary(String[] dictionary, int[] codes) {
+        return new Column(Kind.DICTIONARY, codes, null, null, dictionary);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int[] getInts() {
+        return ints;
+    }
+
+    public long[] getLongs() {
+        return longs;
+    }
+
+    public double[] getDoubles() {
+        return doubles;
+    }
+
+    public int[] getCodes() {
+        return ints;
+    }
+
+    public String[] getDictionary() {
+        return dictionary;
+    }
+
+    public int size() {
+        switch (kind) {
+            case LONG:
+                return longs.length;
+            case DOUBLE:
+                return doubles.length;
+            default:
+                return ints.length;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.spring.ruleengine.model;
+
+import com.spring.ruleengine.exception.InvalidDataFormatException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Rows sharing one schema, stored column by column for bulk evaluation
+public class ColumnBatch {
+    private final int rowCount;
+    private final Map<String, Column> columns = new HashMap<>();
+
+    public ColumnBatch(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public ColumnBatch addColumn(String attribute, Column column) {
+        if (column.size() != rowCount) {
+            throw new InvalidDataFormatException("Column '" + attribute + "' has " + column.size()
+                    + " values, expected " + rowCount + ".");
+        }
+        columns.put(attribute, column);
+        return this;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public Column getColumn(String attribute) {
+        return columns.get(attribute);
+    }
+
+    public Map<String, Column> getColumns() {
+        return columns;
+    }
+}
@@ -0,0 +1,190 @@
+package com.spring.ruleengine.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class CompiledRule {
+    private final String ruleString; // normalized rule string used as the cache key
+    private volatile ASTNode root; // parsed AST of the rule, replaced when the optimizer reorders it, null once compacted
+    private volatile Function<String, ASTNode> reparser; // rebuilds the tree of a compacted rule
+    private volatile ASTNode parsedRoot; // the tree before the first reordering, null while never reordered
+    private volatile Predicate<Map<String, Object>> bytecode; // generated predicate, compiled on first use
+    private volatile boolean bytecodeUnavailable; // set when bytecode compilation failed
+    private volatile FlatRule flat; // flat-array form, converted on first use
+    private volatile boolean flatUnavailable; // set when the flat conversion failed
+    private volatile SlotRule slotRule; // flat form resolved to schema slots, built on first use
+    private volatile boolean slotRuleUnavailable; // set when the rule cannot be resolved to slots
+    private volatile RuleProfile profile; // runtime statistics for the current root, created on first sample
+    private final AtomicBoolean reordering = new AtomicBoolean(); // held while the optimizer rebuilds the root
+    private final Function<String, ASTNode> parser; // parses the rule as written when the tree is optimized
+    private volatile List<String> attributes; // distinct attributes of the rule as written, found on first use
+
+    public CompiledRule(String ruleString, ASTNode root) {
+        this.ruleString = ruleString;
+        this.root = root;
+        this.parser = null;
+        this.attributes = collectAttributes(root);
+    }
+
+    // A rule whose tree is the optimized form of the rule string. Optimizing can drop conditions, so the
+    // attributes a record must hold and the errors it gets come from the tree the parser rebuilds.
+    public CompiledRule(String ruleString, ASTNode optimizedRoot, Function<String, ASTNode> parser) {
+        this.ruleString = ruleString;
+        this.root = optimizedRoot;
+        this.parser = parser;
+    }
+
+    // Attributes referenced by the rule's leaves, in rule order. Kept as a list, which is far smaller than a
+    // set for the few attributes a rule reads.
+    private static List<String> collectAttributes(ASTNode root) {
+        Set<String> attributes = new LinkedHashSet<>();
+        Deque<ASTNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            ASTNode node = pending.pop();
+            if (node.getCondition() != null) {
+                attributes.add(node.getCondition().getAttribute());
+            }
+            for (int i = node.getChildren().size() - 1; i >= 0; i--) {
+                pending.push(node.getChildren().get(i));
+            }
+        }
+        return List.copyOf(attributes);
+    }
+
+    public String getRuleString() {
+        return ruleString;
+    }
+
+    public List<String> getAttributes() {
+        List<String> current = attributes;
+        if (current == null) {
+            current = collectAttributes(parser.apply(ruleString));
+            attributes = current;
+        }
+        return current;
+    }
+
+    // The tree, rebuilt from the rule string on every call once the rule has been compacted
+    public ASTNode getRoot() {
+        ASTNode current = root;
+        return current != null ? current : reparser.apply(ruleString);
+    }
+
+    // The tree in the order it was written, which decides the error reported when a condition fails
+    public ASTNode getParsedRoot() {
+        ASTNode parsed = parsedRoot;
+        return parsed != null ? parsed : getRoot();
+    }
+
+    // Drops the tree of a rule whose flat form is built, so a rule held in the rule set costs only the flat
+    // arrays. The few paths that still need a tree (tracing, bytecode compilation, columnar evaluation) get
+    // one rebuilt by the reparser; the interpreter runs the flat form instead.
+    public void compact(Function<String, ASTNode> reparser) {
+        if (flat == null || parsedRoot != null) {
+            throw new IllegalStateException("Only an unreordered rule with a flat form can be compacted");
+        }
+        this.reparser = reparser;
+        this.root = null;
+    }
+
+    public boolean isCompact() {
+        return root == null;
+    }
+
+    public boolean isReordered() {
+        return parsedRoot != null;
+    }
+
+    // True when the tree evaluated is not the rule as written, because it was optimized or reordered
+    public boolean isRewritten() {
+        return parser != null || parsedRoot != null;
+    }
+
+    // The rule as written, rebuilt on every call for an optimized rule
+    public ASTNode getWrittenRoot() {
+        return parser != null ? parser.apply(ruleString) : getParsedRoot();
+    }
+
+    // Swaps in a reordered tree; anything derived from the old tree is dropped and rebuilt on demand
+    public void setRoot(ASTNode root) {
+        if (this.parsedRoot == null) {
+            this.parsedRoot = this.root;
+        }
+        this.root = root;
+        this.bytecode = null;
+        this.bytecodeUnavailable = false;
+        this.flat = null;
+        this.flatUnavailable = false;
+        this.slotRule = null;
+        this.slotRuleUnavailable = false;
+        this.profile = null;
+    }
+
+    public Predicate<Map<String, Object>> getBytecode() {
+        return bytecode;
+    }
+
+    public void setBytecode(Predicate<Map<String, Object>> bytecode) {
+        this.bytecode = bytecode;
+    }
+
+    public boolean isBytecodeUnavailable() {
+        return bytecodeUnavailable;
+    }
+
+    public void setBytecodeUnavailable(boolean bytecodeUnavailable) {
+        this.bytecodeUnavailable = bytecodeUnavailable;
+    }
+
+    public FlatRule getFlat() {
+        return flat;
+    }
+
+    public void setFlat(FlatRule flat) {
+        this.flat = flat;
+    }
+
+    public boolean isFlatUnavailable() {
+        return flatUnavailable;
+    }
+
+    public void setFlatUnavailable(boolean flatUnavailable) {
+        this.flatUnavailable = flatUnavailable;
+    }
+
+    public SlotRule getSlotRule() {
+        return slotRule;
+    }
+
+    public void setSlotRule(SlotRule slotRule) {
+        this.slotRule = slotRule;
+    }
+
+    public boolean isSlotRuleUnavailable() {
+        return slotRuleUnavailable;
+    }
+
+    public void setSlotRuleUnavailable(boolean slotRuleUnavailable) {
+        this.slotRuleUnavailable = slotRuleUnavailable;
+    }
+
+    public RuleProfile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(RuleProfile profile) {
+        this.profile = profile;
+    }
+
+    public AtomicBoolean getReordering() {
+        return reordering;
+    }
+}
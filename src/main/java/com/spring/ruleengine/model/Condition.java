@@ -0,0 +1,174 @@
+package com.spring.ruleengine.model;
+
+import com.spring.ruleengine.exception.InvalidDataFormatException;
+import com.spring.ruleengine.exception.MissingAttributeException;
+
+import java.util.Map;
+import java.util.Objects;
+
+// Pre-parsed comparison leaf (e.g. "age > 30") so evaluation does no string parsing
+public final class Condition {
+
+    public enum ValueType { LONG, DOUBLE, STRING }
+
+    private final String attribute;
+    private final Operator operator;
+    private final ValueType valueType;
+    private final String literal; // constant as written in the rule, used for error messages
+    private final long longValue;
+    private final double doubleValue;
+    private final String stringValue;
+
+    private Condition(String attribute, Operator operator, ValueType valueType, String literal,
+                      long longValue, double doubleValue, String stringValue) {
+        this.attribute = attribute;
+        this.operator = operator;
+        this.valueType = valueType;
+        this.literal = literal;
+        this.longValue = longValue;
+        this.doubleValue = doubleValue;
+        this.stringValue = stringValue;
+    }
+
+    // Parses an operand such as "age > 30", returning null if it is not a valid comparison
+    public static Condition parse(String operand) {
+        if (operand == null) {
+            return null;
+        }
+        // The literal may itself contain spaces, e.g. "department = 'Sales Team'"
+        String[] parts = operand.split(" ", 3);
+        if (parts.length != 3) {
+            return null;
+        }
+        Operator operator = Operator.fromSymbol(parts[1].trim());
+        if (operator == null) {
+            return null;
+        }
+        return of(parts[0].trim(), operator, parts[2].trim());
+    }
+
+    // Builds a condition from its parts, returning null if the literal is not a valid constant
+    public static Condition of(String attribute, Operator operator, String literal) {
+        if (literal.length() >= 2 && literal.startsWith("'") && literal.endsWith("'")) {
+            return new Condition(attribute, operator, ValueType.STRING, literal,
+                    0L, 0.0, literal.substring(1, literal.length() - 1));
+        }
+        try {
+            if (literal.contains(".")) {
+                double value = Double.parseDouble(literal);
+                return new Condition(attribute, operator, ValueType.DOUBLE, literal, (long) value, value, null);
+            }
+            long value = Long.parseLong(literal);
+            return new Condition(attribute, operator, ValueType.LONG, literal, value, value, null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean test(Map<String, Object> data) {
+        Object dataValue = data.get(attribute);
+        if (dataValue == null && !data.containsKey(attribute)) {
+            throw new MissingAttributeException("Required field missing: " + attribute);
+        }
+        return test(dataValue);
+    }
+
+    public boolean test(Object dataValue) {
+        switch (valueType) {
+            case STRING:
+                if (dataValue instanceof String) {
+                    return operator.test(((String) dataValue).compareTo(stringValue));
+                }
+                throw invalidFormat();
+
+            case DOUBLE:
+                if (dataValue instanceof Number) {
+                    return operator.test(((Number) dataValue).doubleValue(), doubleValue);
+                }
+                return operator.test(parseDouble(dataValue), doubleValue);
+
+            default:
+                if (dataValue instanceof Integer || dataValue instanceof Long
+                        || dataValue instanceof Short || dataValue instanceof Byte) {
+                    return operator.test(((Number) dataValue).longValue(), longValue);
+                }
+                if (dataValue instanceof Number) {
+                    return operator.test(((Number) dataValue).doubleValue(), doubleValue);
+                }
+                return operator.test(parseLong(dataValue), longValue);
+        }
+    }
+
+    private double parseDouble(Object dataValue) {
+        if (dataValue instanceof String) {
+            try {
+                return Double.parseDouble((String) dataValue);
+            } catch (NumberFormatException e) {
+                // fall through to the format error below
+            }
+        }
+        throw invalidFormat();
+    }
+
+    private long parseLong(Object dataValue) {
+        if (dataValue instanceof String) {
+            try {
+                return Long.parseLong((String) dataValue);
+            } catch (NumberFormatException e) {
+                // fall through to the format error below
+            }
+        }
+        throw invalidFormat();
+    }
+
+    private InvalidDataFormatException invalidFormat() {
+        return new InvalidDataFormatException("Invalid numeric format for comparison: " + literal);
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public ValueType getValueType() {
+        return valueType;
+    }
+
+    public String getLiteral() {
+        return literal;
+    }
+
+    public long getLongValue() {
+        return longValue;
+    }
+
+    public double getDoubleValue() {
+        return doubleValue;
+    }
+
+    public String getStringValue() {
+        return stringValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Condition)) return false;
+        Condition other = (Condition) o;
+        return attribute.equals(other.attribute) && operator == other.operator
+                && valueType == other.valueType && literal.equals(other.literal);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(attribute, operator, literal);
+    }
+
+    @Override
+    public String toString() {
+        return attribute + " " + operator.getSymbol() + " " + literal;
+    }
+}
@@ -0,0 +1,37 @@
+package com.spring.ruleengine.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Interns attribute names and conditions so that rules sharing a comparison share one Condition object.
+// Once maxSize conditions are pooled, new ones are returned as they are rather than growing the pool.
+public class ConditionPool {
+
+    private final int maxSize;
+    private final Map<String, String> attributes = new HashMap<>();
+    private final Map<Condition, Condition> conditions = new HashMap<>();
+
+    public ConditionPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public synchronized Condition intern(Condition condition) {
+        Condition pooled = conditions.get(condition);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (conditions.size() >= maxSize) {
+            return condition;
+        }
+        String attribute = attributes.computeIfAbsent(condition.getAttribute(), a -> a);
+        if (attribute != condition.getAttribute()) {
+            condition = Condition.of(attribute, condition.getOperator(), condition.getLiteral());
+        }
+        conditions.put(condition, condition);
+        return condition;
+    }
+
+    public synchronized int size() {
+        return conditions.size();
+    }
+}
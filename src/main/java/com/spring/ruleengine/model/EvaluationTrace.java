@@ -0,0 +1,61 @@
+package com.spring.ruleengine.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Result of a traced evaluation: one step per visited or short-circuited node, in rule order
+public class EvaluationTrace {
+
+    public enum Outcome { TRUE, FALSE, SKIPPED }
+
+    // node is the junction type or the condition text; attribute and value are set for evaluated leaves
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Step(int depth, String node, Outcome outcome, String attribute, Object value) {
+    }
+
+    private final boolean result;
+    private final List<Step> steps;
+
+    public EvaluationTrace(boolean result, List<Step> steps) {
+        this.result = result;
+        this.steps = steps;
+    }
+
+    public boolean getResult() {
+        return result;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    // Compact one-line form for logs, e.g. AND=FALSE[age > 30 (age=25)=FALSE, salary > 50000=SKIPPED]
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            for (; depth > step.depth(); depth--) {
+                text.append(']');
+            }
+            if (i > 0 && text.charAt(text.length() - 1) != '[') {
+                text.append(", ");
+            }
+            text.append(step.node());
+            if (step.attribute() != null) {
+                text.append(" (").append(step.attribute()).append('=').append(step.value()).append(')');
+            }
+            text.append('=').append(step.outcome());
+            if (i + 1 < steps.size() && steps.get(i + 1).depth() > step.depth()) {
+                text.append('[');
+                depth++;
+            }
+        }
+        for (; depth > 0; depth--) {
+            text.append(']');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package com.spring.ruleengine.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable rule encoded as flat int arrays. AND/OR nodes are compiled away into short-circuit jumps:
+// each leaf is three ints (condition index, next leaf if true, next leaf if false), and a negative
+// target ends evaluation with that result. Evaluation is a single loop with no per-node objects.
+public final class FlatRule {
+
+    static final int STRIDE = 3;
+    static final int FALSE = -1;
+    static final int TRUE = -2;
+
+    private final int[] code;
+    private final Condition[] conditions; // distinct conditions of this rule, indexed from code
+    private final int entry; // first leaf to test, or TRUE/FALSE for a constant rule
+
+    private FlatRule(int[] code, Condition[] conditions, int entry) {
+        this.code = code;
+        this.conditions = conditions;
+        this.entry = entry;
+    }
+
+    // Converts an AST, interning its conditions in the given pool; throws if a leaf is not a valid comparison
+    public static FlatRule from(ASTNode root, ConditionPool pool) {
+        Builder builder = new Builder(pool);
+        int entry = builder.emit(root, 0, TRUE, FALSE);
+        return new FlatRule(Arrays.copyOf(builder.code, builder.leafCount * STRIDE),
+                builder.conditions.toArray(new Condition[0]), entry);
+    }
+
+    public boolean test(Map<String, Object> data) {
+        int[] code = this.code;
+        int pc = entry;
+        while (pc >= 0) {
+            int at = pc * STRIDE;
+            pc = conditions[code[at]].test(data) ? code[at + 1] : code[at + 2];
+        }
+        return pc == TRUE;
+    }
+
+    public int getLeafCount() {
+        return code.length / STRIDE;
+    }
+
+    // Shared with SlotRule, which runs the same code over slot-bound records; never modified
+    int[] getCode() {
+        return code;
+    }
+
+    Condition[] getConditions() {
+        return conditions;
+    }
+
+    int getEntry() {
+        return entry;
+    }
+
+    private static final class Builder {
+        private final ConditionPool pool;
+        private final List<Condition> conditions = new ArrayList<>();
+        private final Map<Condition, Integer> conditionIndexes = new HashMap<>();
+        private final Map<ASTNode, Integer> leafCounts = new IdentityHashMap<>();
+        private int[] code = new int[16 * STRIDE];
+        private int leafCount;
+
+        Builder(ConditionPool pool) {
+            this.pool = pool;
+        }
+
+        // Leaves are numbered left to right from first; returns the entry point of the node,
+        // which is its first leaf, or the target it always jumps to when it has no leaves
+        int emit(ASTNode node, int first, int ifTrue, int ifFalse) {
+            List<ASTNode> children = node.getChildren();
+            switch (node.getType()) {
+                case "AND":
+                case "OR": {
+                    boolean and = "AND".equals(node.getType());
+                    if (children.isEmpty()) {
+                        return and ? ifTrue : ifFalse;
+                    }
+                    int[] firsts = new int[children.size()];
+                    int next = first;
+                    for (int i = 0; i < firsts.length; i++) {
+                        firsts[i] = next;
+                        next += leaves(children.get(i));
+                    }
+                    // Right to left, so each child knows where its sibling starts
+                    int continueAt = and ? ifTrue : ifFalse;
+                    for (int i = firsts.length - 1; i >= 0; i--) {
+                        continueAt = and
+                                ? emit(children.get(i), firsts[i], continueAt, ifFalse)
+                                : emit(children.get(i), firsts[i], ifTrue, continueAt);
+                    }
+                    return continueAt;
+                }
+
+                case "operand": {
+                    Condition condition = node.getCondition();
+                    if (condition == null) {
+                        throw new IllegalArgumentException("Operand is not a valid comparison: " + node.getValue());
+                    }
+                    if (first * STRIDE + STRIDE > code.length) {
+                        code = Arrays.copyOf(code, Math.max(code.length * 2, first * STRIDE + STRIDE));
+                    }
+                    code[first * STRIDE] = conditionIndex(condition);
+                    code[first * STRIDE + 1] = ifTrue;
+                    code[first * STRIDE + 2] = ifFalse;
+                    leafCount = Math.max(leafCount, first + 1);
+                    return first;
+                }
+
+                default:
+                    throw new IllegalArgumentException("Unknown node type: " + node.getType());
+            }
+        }
+
+        private int conditionIndex(Condition condition) {
+            return conditionIndexes.computeIfAbsent(condition, c -> {
+                conditions.add(pool.intern(c));
+                return conditions.size() - 1;
+            });
+        }
+
+        // Leaf counts are memoized since an optimized tree may share subtrees
+        private int leaves(ASTNode node) {
+            if (!"AND".equals(node.getType()) && !"OR".equals(node.getType())) {
+                return 1;
+            }
+            Integer cached = leafCounts.get(node);
+            if (cached != null) {
+                return cached;
+            }
+            int count = 0;
+            for (ASTNode child : node.getChildren()) {
+                count += leaves(child);
+            }
+            leafCounts.put(node, count);
+            return count;
+        }
+    }
+}
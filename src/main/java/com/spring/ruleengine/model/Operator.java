@@ -0,0 +1,79 @@
+package com.spring.ruleengine.model;
+
+public enum Operator {
+    GT(">"),
+    LT("<"),
+    EQ("="),
+    NE("!="),
+    GE(">="),
+    LE("<=");
+
+    private final String symbol;
+
+    Operator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    // Returns the operator for a symbol, or null if the symbol is not supported
+    public static Operator fromSymbol(String symbol) {
+        switch (symbol) {
+            case ">":
+                return GT;
+            case "<":
+                return LT;
+            case "=":
+                return EQ;
+            case "!=":
+                return NE;
+            case ">=":
+                return GE;
+            case "<=":
+                return LE;
+            default:
+                return null;
+        }
+    }
+
+    public boolean test(long left, long right) {
+        switch (this) {
+            case GT:
+                return left > right;
+            case LT:
+                return left < right;
+            case EQ:
+                return left == right;
+            case NE:
+                return left != right;
+            case GE:
+                return left >= right;
+            default:
+                return left <= right;
+        }
+    }
+
+    public boolean test(double left, double right) {
+        switch (this) {
+            case GT:
+                return left > right;
+            case LT:
+                return left < right;
+            case EQ:
+                return left == right;
+            case NE:
+                return left != right;
+            case GE:
+                return left >= right;
+            default:
+                return left <= right;
+        }
+    }
+
+    // Tests the result of a compareTo call against zero
+    public boolean test(int comparison) {
+        return test(comparison, 0L);
+    }
+}
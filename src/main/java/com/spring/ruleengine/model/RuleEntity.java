@@ -1,18 +1,34 @@
 package com.spring.ruleengine.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
 
 @Entity
 public class RuleEntity {
+    public static final String ID_SEQUENCE = "rule_entity_seq";
+    public static final int ID_BLOCK_SIZE = 50;
+
+    // Sequence ids are handed out in blocks of 50 so Hibernate can batch inserts, which IDENTITY prevents
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     private String ruleString;
 
+    @Lob
+    @JsonIgnore
+    private String astJson; // optimized AST of ruleString, null if the rule could not be parsed when saved
+
+    public Long getId() {
+        return id;
+    }
+
     public String getRuleString() {
         return ruleString;
     }
@@ -20,4 +36,12 @@ public class RuleEntity {
     public void setRuleString(String ruleString) {
         this.ruleString = ruleString;
     }
+
+    public String getAstJson() {
+        return astJson;
+    }
+
+    public void setAstJson(String astJson) {
+        this.astJson = astJson;
+    }
 }
@@ -0,0 +1,65 @@
+package com.spring.ruleengine.model;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runtime statistics for the nodes of one rule tree, collected on sampled evaluations
+public class RuleProfile {
+
+    public static final class NodeStats {
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder passes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        public void record(boolean result, long elapsedNanos) {
+            evaluations.increment();
+            if (result) {
+                passes.increment();
+            }
+            nanos.add(elapsedNanos);
+        }
+
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        // Fraction of evaluations that returned true, or 0.5 when the node was never evaluated
+        public double getPassRate() {
+            long count = evaluations.sum();
+            return count == 0 ? 0.5 : (double) passes.sum() / count;
+        }
+
+        // Mean cost in nanoseconds, or -1 when the node was never evaluated
+        public double getAverageNanos() {
+            long count = evaluations.sum();
+            return count == 0 ? -1 : (double) nanos.sum() / count;
+        }
+    }
+
+    private final Map<ASTNode, NodeStats> stats = new IdentityHashMap<>(); // filled once, then read-only
+    private final LongAdder samples = new LongAdder();
+
+    public RuleProfile(ASTNode root) {
+        register(root);
+    }
+
+    private void register(ASTNode node) {
+        stats.put(node, new NodeStats());
+        for (ASTNode child : node.getChildren()) {
+            register(child);
+        }
+    }
+
+    public NodeStats get(ASTNode node) {
+        return stats.get(node);
+    }
+
+    public void recordSample() {
+        samples.increment();
+    }
+
+    public long getSampleCount() {
+        return samples.sum();
+    }
+}
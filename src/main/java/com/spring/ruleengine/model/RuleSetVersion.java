@@ -0,0 +1,31 @@
+package com.spring.ruleengine.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+// Single-row counter bumped after every rule write in cluster mode; instances poll it to know when to reload
+@Entity
+public class RuleSetVersion {
+    public static final long ROW_ID = 1L;
+
+    @Id
+    private Long id;
+
+    private long version;
+
+    public RuleSetVersion() {
+    }
+
+    public RuleSetVersion(Long id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
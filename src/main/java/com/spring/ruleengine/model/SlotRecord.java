@@ -0,0 +1,125 @@
+package com.spring.ruleengine.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// One record bound to an AttributeSchema. Each attribute's value sits at the attribute's slot in primitive
+// arrays, with a tag saying how it is stored: whole numbers as longs, decimals as doubles, strings as
+// references and listed ENUM values also as their code. Anything else (null, booleans, big numbers, nested
+// values) is kept boxed as OBJECT and compared exactly as it would be in a map. A record can be cleared and
+// bound again, so one instance serves a whole stream.
+public final class SlotRecord {
+
+    public static final byte MISSING = 0;
+    public static final byte LONG = 1;
+    public static final byte DOUBLE = 2;
+    public static final byte STRING = 3;
+    public static final byte ENUM = 4; // a listed value of an ENUM attribute; the string is kept as well
+    public static final byte OBJECT = 5;
+
+    private final AttributeSchema schema;
+    private final byte[] tags;
+    private final long[] longs; // LONG values and ENUM codes
+    private final double[] doubles;
+    private final Object[] objects; // STRING and ENUM strings and OBJECT values
+
+    public SlotRecord(AttributeSchema schema) {
+        this.schema = schema;
+        this.tags = new byte[schema.size()];
+        this.longs = new long[schema.size()];
+        this.doubles = new double[schema.size()];
+        this.objects = new Object[schema.size()];
+    }
+
+    public AttributeSchema getSchema() {
+        return schema;
+    }
+
+    public byte getTag(int slot) {
+        return tags[slot];
+    }
+
+    public long getLong(int slot) {
+        return longs[slot];
+    }
+
+    public double getDouble(int slot) {
+        return doubles[slot];
+    }
+
+    public int getCode(int slot) {
+        return (int) longs[slot];
+    }
+
+    public String getString(int slot) {
+        return (String) objects[slot];
+    }
+
+    public boolean isPresent(int slot) {
+        return tags[slot] != MISSING;
+    }
+
+    // The value as a map would hold it, boxing numbers
+    public Object getValue(int slot) {
+        switch (tags[slot]) {
+            case LONG:
+                return longs[slot];
+            case DOUBLE:
+                return doubles[slot];
+            default:
+                return objects[slot];
+        }
+    }
+
+    public void setLong(int slot, long value) {
+        tags[slot] = LONG;
+        longs[slot] = value;
+        objects[slot] = null;
+    }
+
+    public void setDouble(int slot, double value) {
+        tags[slot] = DOUBLE;
+        doubles[slot] = value;
+        objects[slot] = null;
+    }
+
+    // Listed values of an ENUM attribute are also stored as their code
+    public void setString(int slot, String value) {
+        int code = schema.getType(slot) == AttributeType.ENUM ? schema.getEnumCode(slot, value) : -1;
+        tags[slot] = code >= 0 ? ENUM : STRING;
+        longs[slot] = code;
+        objects[slot] = value;
+    }
+
+    // Stores a value from a map, keeping the Java type's comparison behaviour
+    public void setValue(int slot, Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            setLong(slot, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            setDouble(slot, ((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            setString(slot, (String) value);
+        } else {
+            tags[slot] = OBJECT;
+            objects[slot] = value;
+        }
+    }
+
+    // Forgets every value, releasing the references so a reused record does not retain request data
+    public void clear() {
+        Arrays.fill(tags, MISSING);
+        Arrays.fill(objects, null);
+    }
+
+    // The present attributes by name, for evaluating rules that cannot use slots
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        for (int slot = 0; slot < tags.length; slot++) {
+            if (tags[slot] != MISSING) {
+                map.put(schema.getName(slot), getValue(slot));
+            }
+        }
+        return map;
+    }
+}
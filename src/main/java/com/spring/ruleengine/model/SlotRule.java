@@ -0,0 +1,135 @@
+package com.spring.ruleengine.model;
+
+import com.spring.ruleengine.exception.MissingAttributeException;
+
+import java.util.List;
+
+// A FlatRule whose conditions are resolved against an AttributeSchema once: each leaf reads its attribute's
+// slot in a SlotRecord and compares the primitive value there, with no map lookup, boxing or parsing. A leaf
+// is specialised for the attribute's declared type. A value stored differently (a string in an INT attribute,
+// say) takes the Condition's own comparison, so results and errors are the same as evaluating the map.
+public final class SlotRule {
+
+    private static final byte WHOLE = 0; // numeric attribute, whole-number literal
+    private static final byte DECIMAL = 1; // numeric attribute, decimal literal
+    private static final byte TEXT = 2; // STRING attribute, string literal
+    private static final byte CODE = 3; // ENUM attribute, string literal: answered per enum value in advance
+    private static final byte GENERIC = 4; // any other combination
+
+    private final int[] code;
+    private final int entry;
+    private final Condition[] conditions;
+    private final byte[] kinds;
+    private final int[] slots;
+    private final Operator[] operators;
+    private final long[] longLiterals;
+    private final double[] doubleLiterals;
+    private final boolean[][] enumMatches; // for CODE leaves, the result for each value of the enum
+
+    private SlotRule(FlatRule flat, AttributeSchema schema, int[] slots) {
+        this.code = flat.getCode();
+        this.entry = flat.getEntry();
+        this.conditions = flat.getConditions();
+        this.slots = slots;
+        int count = conditions.length;
+        this.kinds = new byte[count];
+        this.operators = new Operator[count];
+        this.longLiterals = new long[count];
+        this.doubleLiterals = new double[count];
+        this.enumMatches = new boolean[count][];
+        for (int i = 0; i < count; i++) {
+            Condition condition = conditions[i];
+            operators[i] = condition.getOperator();
+            longLiterals[i] = condition.getLongValue();
+            doubleLiterals[i] = condition.getDoubleValue();
+            kinds[i] = kind(schema.getType(slots[i]), condition.getValueType());
+            if (kinds[i] == CODE) {
+                List<String> values = schema.getEnumValues(slots[i]);
+                enumMatches[i] = new boolean[values.size()];
+                for (int v = 0; v < values.size(); v++) {
+                    enumMatches[i][v] = condition.test(values.get(v));
+                }
+            }
+        }
+    }
+
+    // Resolves the rule's attributes against the schema; null if it uses an attribute the schema lacks
+    public static SlotRule from(FlatRule flat, AttributeSchema schema) {
+        Condition[] conditions = flat.getConditions();
+        int[] slots = new int[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            slots[i] = schema.getSlot(conditions[i].getAttribute());
+            if (slots[i] < 0) {
+                return null;
+            }
+        }
+        return new SlotRule(flat, schema, slots);
+    }
+
+    private static byte kind(AttributeType type, Condition.ValueType literal) {
+        switch (type) {
+            case INT:
+            case DOUBLE:
+                return literal == Condition.ValueType.LONG ? WHOLE
+                        : literal == Condition.ValueType.DOUBLE ? DECIMAL : GENERIC;
+            case STRING:
+                return literal == Condition.ValueType.STRING ? TEXT : GENERIC;
+            default:
+                return literal == Condition.ValueType.STRING ? CODE : GENERIC;
+        }
+    }
+
+    public boolean test(SlotRecord record) {
+        int[] code = this.code;
+        int pc = entry;
+        while (pc >= 0) {
+            int at = pc * FlatRule.STRIDE;
+            pc = test(code[at], record) ? code[at + 1] : code[at + 2];
+        }
+        return pc == FlatRule.TRUE;
+    }
+
+    private boolean test(int i, SlotRecord record) {
+        int slot = slots[i];
+        byte tag = record.getTag(slot);
+        switch (kinds[i]) {
+            case WHOLE:
+                // Same as Condition: whole numbers compare as longs, decimals as doubles
+                if (tag == SlotRecord.LONG) {
+                    return operators[i].test(record.getLong(slot), longLiterals[i]);
+                }
+                if (tag == SlotRecord.DOUBLE) {
+                    return operators[i].test(record.getDouble(slot), doubleLiterals[i]);
+                }
+                break;
+
+            case DECIMAL:
+                if (tag == SlotRecord.LONG) {
+                    return operators[i].test((double) record.getLong(slot), doubleLiterals[i]);
+                }
+                if (tag == SlotRecord.DOUBLE) {
+                    return operators[i].test(record.getDouble(slot), doubleLiterals[i]);
+                }
+                break;
+
+            case TEXT:
+                if (tag == SlotRecord.STRING) {
+                    return operators[i].test(record.getString(slot).compareTo(conditions[i].getStringValue()));
+                }
+                break;
+
+            case CODE:
+                if (tag == SlotRecord.ENUM) {
+                    return enumMatches[i][record.getCode(slot)];
+                }
+                break;
+
+            default:
+                break;
+        }
+        if (tag == SlotRecord.MISSING) {
+            throw new MissingAttributeException("Required field missing: " + conditions[i].getAttribute());
+        }
+        return conditions[i].test(record.getValue(slot));
+    }
+}
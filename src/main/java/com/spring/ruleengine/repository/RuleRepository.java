@@ -2,6 +2,18 @@ package com.spring.ruleengine.repository;
 
 import com.spring.ruleengine.model.RuleEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface RuleRepository extends JpaRepository<RuleEntity, Long> {
+
+    // Cheap fingerprint of the stored rules for change polling. Rules are only ever inserted or deleted, and
+    // ids only grow, so any change alters the count, the highest id or the id sum.
+    @Query("select new com.spring.ruleengine.repository.RuleSetSignature(count(r), coalesce(max(r.id), 0L), "
+            + "coalesce(sum(r.id), 0L)) from RuleEntity r")
+    RuleSetSignature signature();
+
+    @Query("select r.id from RuleEntity r")
+    List<Long> findAllIds();
 }
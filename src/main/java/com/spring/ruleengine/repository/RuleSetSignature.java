@@ -0,0 +1,4 @@
+package com.spring.ruleengine.repository;
+
+public record RuleSetSignature(Long count, Long maxId, Long idSum) {
+}
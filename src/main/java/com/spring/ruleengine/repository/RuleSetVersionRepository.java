@@ -0,0 +1,19 @@
+package com.spring.ruleengine.repository;
+
+import com.spring.ruleengine.model.RuleSetVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface RuleSetVersionRepository extends JpaRepository<RuleSetVersion, Long> {
+
+    // Atomic in the database, so concurrent writers on different instances never lose a bump
+    @Transactional
+    @Modifying
+    @Query("update RuleSetVersion v set v.version = v.version + 1 where v.id = " + RuleSetVersion.ROW_ID)
+    int bump();
+
+    @Query("select v.version from RuleSetVersion v where v.id = " + RuleSetVersion.ROW_ID)
+    Long currentVersion();
+}
@@ -0,0 +1,168 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.RuleProfile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Reorders the children of AND/OR nodes in cached rules so that cheap, decisive conditions run first.
+// A random sample of evaluations is run through an instrumented interpreter that records each node's
+// pass rate and cost; after enough samples the rule's tree is rebuilt with the children of every
+// junction sorted by expected cost per short-circuit and swapped into the CompiledRule.
+// A new order gives the same result only while no condition fails: in AND(a > 1, age > 99) with a missing
+// and age 5, the written order throws where the reordered one returns false, and the other way round for
+// AND(age > 99, a > 1). RuleService therefore evaluates the written order when a record lacks one of the
+// rule's attributes or the reordered tree throws. The one difference left is a value of the wrong type for
+// a condition the new order skips, which gives the result rather than the error.
+@Component
+public class AdaptiveRuleOptimizer {
+
+    private final boolean enabled;
+    private final int sampleInterval;
+    private final int reorderAfter;
+
+    public AdaptiveRuleOptimizer(@Value("${rule.optimizer.adaptive.enabled:false}") boolean enabled,
+                                 @Value("${rule.optimizer.adaptive.sample-interval:64}") int sampleInterval,
+                                 @Value("${rule.optimizer.adaptive.reorder-after:1000}") int reorderAfter) {
+        this.enabled = enabled;
+        this.sampleInterval = Math.max(1, sampleInterval);
+        this.reorderAfter = reorderAfter;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // True for roughly one in sampleInterval evaluations
+    public boolean shouldSample() {
+        return enabled && (sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0);
+    }
+
+    // Evaluates the rule with the instrumented interpreter and reorders it once enough samples are in
+    public boolean evaluateSampled(CompiledRule rule, Map<String, Object> data) {
+        ASTNode root = rule.getRoot();
+        RuleProfile profile = rule.getProfile();
+        if (profile == null || profile.get(root) == null) {
+            profile = new RuleProfile(root);
+            rule.setProfile(profile);
+        }
+
+        boolean result = evaluate(root, data, profile);
+        profile.recordSample();
+        if (profile.getSampleCount() >= reorderAfter && rule.getReordering().compareAndSet(false, true)) {
+            try {
+                ASTNode reordered = reorder(root, profile);
+                if (reordered == root) {
+                    // Order is already right; start a fresh sampling window without recompiling
+                    rule.setProfile(new RuleProfile(root));
+                } else if (rule.getRoot() == root) {
+                    rule.setRoot(reordered);
+                }
+            } finally {
+                rule.getReordering().set(false);
+            }
+        }
+        return result;
+    }
+
+    private boolean evaluate(ASTNode node, Map<String, Object> data, RuleProfile profile) {
+        long start = System.nanoTime();
+        boolean result;
+        List<ASTNode> children = node.getChildren();
+        switch (node.getType()) {
+            case "AND":
+                result = true;
+                for (int i = 0; i < children.size() && result; i++) {
+                    result = evaluate(children.get(i), data, profile);
+                }
+                break;
+
+            case "OR":
+                result = false;
+                for (int i = 0; i < children.size() && !result; i++) {
+                    result = evaluate(children.get(i), data, profile);
+                }
+                break;
+
+            case "operand":
+                Condition condition = node.getCondition();
+                if (condition == null) {
+                    throw new InvalidRuleFormatException("Invalid operand format: " + node.getValue());
+                }
+                result = condition.test(data);
+                break;
+
+            default:
+                throw new InvalidRuleFormatException("Unknown node type: " + node.getType());
+        }
+        profile.get(node).record(result, System.nanoTime() - start);
+        return result;
+    }
+
+    // Builds a copy of the tree with the children of each junction sorted by cost per short-circuit,
+    // returning the node itself when nothing below it moves
+    ASTNode reorder(ASTNode node, RuleProfile profile) {
+        if (node.getChildren().isEmpty()) {
+            return node;
+        }
+        boolean isAnd = node.getType().equals("AND");
+        boolean changed = false;
+        List<ASTNode> children = new ArrayList<>();
+        for (ASTNode child : node.getChildren()) {
+            ASTNode reordered = reorder(child, profile);
+            changed |= reordered != child;
+            children.add(reordered);
+        }
+
+        // Score on the original children, whose statistics were collected; the sort is stable,
+        // so children that were never evaluated keep their relative order
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < children.size(); i++) {
+            order.add(i);
+        }
+        double fallbackCost = averageCost(node.getChildren(), profile);
+        order.sort(Comparator.comparingDouble(i -> score(profile.get(node.getChildren().get(i)), isAnd, fallbackCost)));
+        for (int i = 0; i < order.size() && !changed; i++) {
+            changed = order.get(i) != i;
+        }
+        if (!changed) {
+            return node;
+        }
+
+        ASTNode reordered = new ASTNode(node.getType(), node.getValue());
+        for (int i : order) {
+            reordered.addChild(children.get(i));
+        }
+        return reordered;
+    }
+
+    // Expected cost paid per time the child decides the junction: an AND is decided by a false child
+    // and an OR by a true one, so rarely decisive or expensive children sort last
+    private static double score(RuleProfile.NodeStats stats, boolean isAnd, double fallbackCost) {
+        double cost = stats.getAverageNanos() < 0 ? fallbackCost : stats.getAverageNanos();
+        double decisive = isAnd ? 1 - stats.getPassRate() : stats.getPassRate();
+        return decisive <= 0 ? Double.MAX_VALUE : cost / decisive;
+    }
+
+    private static double averageCost(List<ASTNode> children, RuleProfile profile) {
+        double total = 0;
+        int measured = 0;
+        for (ASTNode child : children) {
+            double cost = profile.get(child).getAverageNanos();
+            if (cost >= 0) {
+                total += cost;
+                measured++;
+            }
+        }
+        return measured == 0 ? 1 : total / measured;
+    }
+}
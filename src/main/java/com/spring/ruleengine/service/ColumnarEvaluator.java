@@ -0,0 +1,263 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidDataFormatException;
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.exception.MissingAttributeException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.Column;
+import com.spring.ruleengine.model.ColumnBatch;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.Operator;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Evaluates a rule over a whole ColumnBatch: each leaf yields a bitset of matching rows, combined word by word.
+public final class ColumnarEvaluator {
+
+    private ColumnarEvaluator() {
+    }
+
+    public static long[] evaluate(ASTNode root, ColumnBatch batch) {
+        return evaluate(root, batch, batch.getRowCount(), (batch.getRowCount() + 63) >>> 6);
+    }
+
+    private static long[] evaluate(ASTNode node, ColumnBatch batch, int rows, int words) {
+        List<ASTNode> children = node.getChildren();
+        switch (node.getType()) {
+            case "AND": {
+                long[] result = allRows(rows, words);
+                for (int i = 0; i < children.size() && !isEmpty(result); i++) {
+                    long[] child = evaluate(children.get(i), batch, rows, words);
+                    for (int w = 0; w < words; w++) {
+                        result[w] &= child[w];
+                    }
+                }
+                return result;
+            }
+
+            case "OR": {
+                long[] result = new long[words];
+                long[] all = allRows(rows, words);
+                for (int i = 0; i < children.size() && !Arrays.equals(result, all); i++) {
+                    long[] child = evaluate(children.get(i), batch, rows, words);
+                    for (int w = 0; w < words; w++) {
+                        result[w] |= child[w];
+                    }
+                }
+                return result;
+            }
+
+            case "operand":
+                Condition condition = node.getCondition();
+                if (condition == null) {
+                    throw new InvalidRuleFormatException("Invalid operand format: " + node.getValue());
+                }
+                return evaluateLeaf(condition, batch, rows, words);
+
+            default:
+                throw new InvalidRuleFormatException("Unknown node type: " + node.getType());
+        }
+    }
+
+    private static long[] evaluateLeaf(Condition condition, ColumnBatch batch, int rows, int words) {
+        Column column = batch.getColumn(condition.getAttribute());
+        if (column == null) {
+            throw new MissingAttributeException("Required field missing: " + condition.getAttribute());
+        }
+
+        long[] out = new long[words];
+        if (column.getKind() == Column.Kind.DICTIONARY) {
+            // Decide each distinct string once, then look the answer up per row
+            String[] dictionary = column.getDictionary();
+            boolean[] matches = new boolean[dictionary.length];
+            for (int k = 0; k < dictionary.length; k++) {
+                matches[k] = dictionary[k] != null && condition.test(dictionary[k]);
+            }
+            int[] codes = column.getCodes();
+            for (int base = 0, w = 0; base < rows; base += 64, w++) {
+                int n = Math.min(64, rows - base);
+                long word = 0;
+                for (int j = 0; j < n; j++) {
+                    word |= (matches[codes[base + j]] ? 1L : 0L) << j;
+                }
+                out[w] = word;
+            }
+            return out;
+        }
+
+        if (condition.getValueType() == Condition.ValueType.STRING) {
+            throw new InvalidDataFormatException("Invalid numeric format for comparison: " + condition.getLiteral());
+        }
+
+        Operator operator = condition.getOperator();
+        if (column.getKind() == Column.Kind.DOUBLE) {
+            compare(column.getDoubles(), operator, condition.getDoubleValue(), rows, out);
+        } else if (condition.getValueType() == Condition.ValueType.DOUBLE) {
+            // Whole-number columns against a fractional literal compare as doubles, like the interpreter
+            if (column.getKind() == Column.Kind.INT) {
+                compareAsDoubles(column.getInts(), operator, condition.getDoubleValue(), rows, out);
+            } else {
+                compareAsDoubles(column.getLongs(), operator, condition.getDoubleValue(), rows, out);
+            }
+        } else if (column.getKind() == Column.Kind.INT) {
+            compare(column.getInts(), operator, condition.getLongValue(), rows, out);
+        } else {
+            compare(column.getLongs(), operator, condition.getLongValue(), rows, out);
+        }
+        return out;
+    }
+
+    private static void compare(int[] values, Operator operator, long c, int rows, long[] out) {
+        for (int base = 0, w = 0; base < rows; base += 64, w++) {
+            int n = Math.min(64, rows - base);
+            long word = 0;
+            switch (operator) {
+                case GT:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] > c ? 1L : 0L) << j;
+                    break;
+                case LT:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] < c ? 1L : 0L) << j;
+                    break;
+                case EQ:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] == c ? 1L : 0L) << j;
+                    break;
+                case NE:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] != c ? 1L : 0L) << j;
+                    break;
+                case GE:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] >= c ? 1L : 0L) << j;
+                    break;
+                default:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] <= c ? 1L : 0L) << j;
+            }
+            out[w] = word;
+        }
+    }
+
+    private static void compare(long[] values, Operator operator, long c, int rows, long[] out) {
+        for (int base = 0, w = 0; base < rows; base += 64, w++) {
+            int n = Math.min(64, rows - base);
+            long word = 0;
+            switch (operator) {
+                case GT:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] > c ? 1L : 0L) << j;
+                    break;
+                case LT:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] < c ? 1L : 0L) << j;
+                    break;
+                case EQ:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] == c ? 1L : 0L) << j;
+                    break;
+                case NE:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] != c ? 1L : 0L) << j;
+                    break;
+                case GE:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] >= c ? 1L : 0L) << j;
+                    break;
+                default:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] <= c ? 1L : 0L) << j;
+            }
+            out[w] = word;
+        }
+    }
+
+    private static void compare(double[] values, Operator operator, double c, int rows, long[] out) {
+        for (int base = 0, w = 0; base < rows; base += 64, w++) {
+            int n = Math.min(64, rows - base);
+            long word = 0;
+            switch (operator) {
+                case GT:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] > c ? 1L : 0L) << j;
+                    break;
+                case LT:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] < c ? 1L : 0L) << j;
+                    break;
+                case EQ:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] == c ? 1L : 0L) << j;
+                    break;
+                case NE:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] != c ? 1L : 0L) << j;
+                    break;
+                case GE:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] >= c ? 1L : 0L) << j;
+                    break;
+                default:
+                    for (int j = 0; j < n; j++) word |= (values[base + j] <= c ? 1L : 0L) << j;
+            }
+            out[w] = word;
+        }
+    }
+
+    private static void compareAsDoubles(int[] values, Operator operator, double c, int rows, long[] out) {
+        for (int base = 0, w = 0; base < rows; base += 64, w++) {
+            int n = Math.min(64, rows - base);
+            long word = 0;
+            switch (operator) {
+                case GT:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] > c ? 1L : 0L) << j;
+                    break;
+                case LT:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] < c ? 1L : 0L) << j;
+                    break;
+                case EQ:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] == c ? 1L : 0L) << j;
+                    break;
+                case NE:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] != c ? 1L : 0L) << j;
+                    break;
+                case GE:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] >= c ? 1L : 0L) << j;
+                    break;
+                default:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] <= c ? 1L : 0L) << j;
+            }
+            out[w] = word;
+        }
+    }
+
+    private static void compareAsDoubles(long[] values, Operator operator, double c, int rows, long[] out) {
+        for (int base = 0, w = 0; base < rows; base += 64, w++) {
+            int n = Math.min(64, rows - base);
+            long word = 0;
+            switch (operator) {
+                case GT:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] > c ? 1L : 0L) << j;
+                    break;
+                case LT:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] < c ? 1L : 0L) << j;
+                    break;
+                case EQ:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] == c ? 1L : 0L) << j;
+                    break;
+                case NE:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] != c ? 1L : 0L) << j;
+                    break;
+                case GE:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] >= c ? 1L : 0L) << j;
+                    break;
+                default:
+                    for (int j = 0; j < n; j++) word |= ((double) values[base + j] <= c ? 1L : 0L) << j;
+            }
+            out[w] = word;
+        }
+    }
+
+    private static long[] allRows(int rows, int words) {
+        long[] bits = new long[words];
+        Arrays.fill(bits, -1L);
+        if ((rows & 63) != 0) {
+            bits[words - 1] = (1L << rows) - 1;
+        }
+        return bits;
+    }
+
+    private static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
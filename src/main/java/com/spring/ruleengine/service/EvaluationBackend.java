@@ -0,0 +1,23 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+
+public enum EvaluationBackend {
+    INTERPRETER, // walks the AST on every evaluation
+    BYTECODE, // evaluates a generated class compiled from the AST
+    FLAT, // runs a loop over the rule encoded as flat int arrays
+    SLOT; // binds streamed JSON records to the attribute schema's slots; runs FLAT for records given as maps
+
+    // Resolves a backend name case-insensitively, returning the fallback when no name is given
+    public static EvaluationBackend from(String name, EvaluationBackend fallback) {
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        for (EvaluationBackend backend : values()) {
+            if (backend.name().equalsIgnoreCase(name.trim())) {
+                return backend;
+            }
+        }
+        throw new InvalidRuleFormatException("Unknown evaluation backend: " + name);
+    }
+}
@@ -0,0 +1,53 @@
+package com.spring.ruleengine.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.Condition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Stored form of an AST: JSON without empty children lists or null values, e.g.
+// {"type":"AND","children":[{"type":"operand","value":"age > 30"},...]}
+public final class RuleAstCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+
+    private RuleAstCodec() {
+    }
+
+    public static String encode(ASTNode root) {
+        try {
+            return MAPPER.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRuleFormatException("Unable to serialize rule: " + e.getMessage());
+        }
+    }
+
+    // Reads a stored AST back and re-attaches the pre-parsed conditions of its leaves
+    public static ASTNode decode(String json) {
+        ASTNode root;
+        try {
+            root = MAPPER.readValue(json, ASTNode.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRuleFormatException("Unable to read stored rule: " + e.getOriginalMessage());
+        }
+
+        List<ASTNode> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            ASTNode node = pending.remove(pending.size() - 1);
+            if ("operand".equals(node.getType())) {
+                node.setCondition(Condition.parse(node.getValue()));
+            } else if (!"AND".equals(node.getType()) && !"OR".equals(node.getType())) {
+                throw new InvalidRuleFormatException("Unknown node type in stored rule: " + node.getType());
+            }
+            pending.addAll(node.getChildren());
+        }
+        return root;
+    }
+}
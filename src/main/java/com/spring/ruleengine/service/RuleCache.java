@@ -0,0 +1,90 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.CompiledRule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+public class RuleCache implements MeterBinder {
+
+    private final int maxSize;
+    private final Map<String, CompiledRule> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RuleCache(@Value("${rule.cache.max-size:500}") int maxSize) {
+        this.maxSize = maxSize;
+        // Access-ordered map so the least recently used rule is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledRule> eldest) {
+                if (size() > RuleCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the cached rule for the normalized key, compiling it on a miss
+    public CompiledRule get(String key, Function<String, CompiledRule> compiler) {
+        synchronized (entries) {
+            CompiledRule cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        // Compile outside the lock so a slow parse does not block other lookups
+        misses.incrementAndGet();
+        CompiledRule compiled = compiler.apply(key);
+        if (maxSize <= 0) {
+            return compiled;
+        }
+        synchronized (entries) {
+            CompiledRule existing = entries.putIfAbsent(key, compiled);
+            return existing != null ? existing : compiled;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.get(), misses.get(), evictions.get(), size, maxSize);
+    }
+
+    // Registered automatically by Spring Boot's metrics auto-configuration
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rule.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("rule.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("rule.cache.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("rule.cache.size", this, cache -> cache.getStats().size()).register(registry);
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, int maxSize) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.spring.ruleengine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.ruleengine.exception.PeerUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+// Cluster membership for instances sharing one rule table. In cluster mode every rule write bumps a version
+// row that the other instances poll. With partitioning on, rule ids are spread over the configured nodes by
+// consistent hashing: each instance compiles and matches only the rules it owns, and /match scatters the
+// record to the other nodes and gathers their matches. Membership is the static rule.cluster.nodes list.
+@Component
+public class RuleCluster {
+
+    public static final String SECRET_HEADER = "X-Rule-Cluster-Secret"; // sent by nodes calling /match/local
+    private static final int VIRTUAL_NODES = 128; // ring points per node, evens out the share each one gets
+    private static final TypeReference<List<Long>> ID_LIST = new TypeReference<>() {
+    };
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final boolean partitioned;
+    private final String self;
+    private final byte[] secret;
+    private final List<String> peers = new ArrayList<>();
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public RuleCluster(@Value("${rule.cluster.enabled:false}") boolean enabled,
+                       @Value("${rule.cluster.partitioned:false}") boolean partitioned,
+                       @Value("${rule.cluster.self:}") String self,
+                       @Value("${rule.cluster.nodes:}") List<String> nodes,
+                       @Value("${rule.cluster.timeout-ms:2000}") long timeoutMillis,
+                       @Value("${rule.cluster.secret:}") String secret) {
+        this.enabled = enabled;
+        this.self = trimSlash(self);
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        boolean selfListed = false;
+        for (String node : nodes) {
+            String url = trimSlash(node);
+            if (url.isEmpty()) {
+                continue;
+            }
+            if (url.equals(this.self)) {
+                selfListed = true;
+            } else {
+                peers.add(url);
+            }
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(url + "#" + i), url);
+            }
+        }
+        if (enabled && partitioned && !selfListed) {
+            throw new IllegalStateException("rule.cluster.self must be one of rule.cluster.nodes to partition rules");
+        }
+        this.partitioned = enabled && partitioned && !peers.isEmpty();
+        if (this.partitioned && secret.isBlank()) {
+            throw new IllegalStateException("rule.cluster.secret must be set to partition rules");
+        }
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    // Whether this instance compiles and matches the rule; always true unless partitioned
+    public boolean owns(long ruleId) {
+        return !partitioned || self.equals(owner(ruleId));
+    }
+
+    // Whether a /match/local call carries the shared secret; always false unless partitioned
+    public boolean acceptsPeer(String presentedSecret) {
+        return partitioned && presentedSecret != null
+                && MessageDigest.isEqual(secret, presentedSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // First ring point at or after the id's hash, wrapping around
+    String owner(long ruleId) {
+        Map.Entry<Long, String> point = ring.ceilingEntry(mix(ruleId));
+        return (point != null ? point : ring.firstEntry()).getValue();
+    }
+
+    // Sends the record to every other node's local match and returns the union of their matches. Fails with
+    // PeerUnavailableException if any node does not answer in time, since a partial answer would look complete.
+    public CompletableFuture<List<Long>> matchPeers(Map<String, Object> data) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(Map.of("data", data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Record cannot be serialized: " + e.getMessage(), e);
+        }
+
+        List<CompletableFuture<List<Long>>> responses = new ArrayList<>(peers.size());
+        for (String peer : peers) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(peer + "/api/rules/match/local"))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8))
+                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                    .build();
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> parseMatches(peer, response)));
+        }
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0]))
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((done, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        throw cause instanceof PeerUnavailableException
+                                ? (PeerUnavailableException) cause
+                                : new PeerUnavailableException("Rule node did not answer: " + cause);
+                    }
+                    List<Long> matches = new ArrayList<>();
+                    for (CompletableFuture<List<Long>> response : responses) {
+                        matches.addAll(response.join());
+                    }
+                    return matches;
+                });
+    }
+
+    private List<Long> parseMatches(String peer, HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new PeerUnavailableException("Rule node " + peer + " answered " + response.statusCode());
+        }
+        try {
+            return objectMapper.readValue(response.body(), ID_LIST);
+        } catch (JsonProcessingException e) {
+            throw new PeerUnavailableException("Rule node " + peer + " sent an unreadable answer");
+        }
+    }
+
+    private static String trimSlash(String url) {
+        String trimmed = url == null ? "" : url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    // Ring points: first eight bytes of the MD5 of "url#i", as in ketama
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Rule ids are sequential, so they are scrambled (MurmurHash3's finalizer) before placing them on the ring
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,165 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.Condition;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Compiles an AST into a hidden class whose test method is the whole rule as straight-line branches.
+// Uses the ASM copy bundled with spring-core, since the JDK ClassFile API is still a preview feature.
+public final class RuleCompiler {
+
+    private static final String CLASS_NAME = "com/spring/ruleengine/service/CompiledRulePredicate";
+    private static final String CONDITION = Type.getInternalName(Condition.class);
+    private static final String CONDITION_DESC = Type.getDescriptor(Condition.class);
+    private static final String TEST_DESC = "(" + Type.getDescriptor(Map.class) + ")Z";
+
+    private RuleCompiler() {
+    }
+
+    // Throws IllegalArgumentException if the tree contains nodes that cannot be compiled
+    @SuppressWarnings("unchecked")
+    public static Predicate<Map<String, Object>> compile(ASTNode root) {
+        List<Condition> conditions = new ArrayList<>();
+        collectConditions(root, conditions);
+
+        byte[] bytes = generate(root, conditions);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (Predicate<Map<String, Object>>) lookup.lookupClass()
+                    .getDeclaredConstructor(Condition[].class)
+                    .newInstance((Object) conditions.toArray(new Condition[0]));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalArgumentException("Unable to load compiled rule: " + e.getMessage(), e);
+        }
+    }
+
+    private static void collectConditions(ASTNode node, List<Condition> conditions) {
+        switch (node.getType()) {
+            case "AND":
+            case "OR":
+                for (ASTNode child : node.getChildren()) {
+                    collectConditions(child, conditions);
+                }
+                break;
+
+            case "operand":
+                if (node.getCondition() == null) {
+                    throw new IllegalArgumentException("Operand is not a valid comparison: " + node.getValue());
+                }
+                conditions.add(node.getCondition());
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown node type: " + node.getType());
+        }
+    }
+
+    private static byte[] generate(ASTNode root, List<Condition> conditions) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, CLASS_NAME, null,
+                "java/lang/Object", new String[]{Type.getInternalName(Predicate.class)});
+
+        // One final field per leaf so the JIT sees each condition as a constant of the hidden class
+        for (int i = 0; i < conditions.size(); i++) {
+            cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "c" + i, CONDITION_DESC, null, null).visitEnd();
+        }
+
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "([" + CONDITION_DESC + ")V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        for (int i = 0; i < conditions.size(); i++) {
+            init.visitVarInsn(Opcodes.ALOAD, 0);
+            init.visitVarInsn(Opcodes.ALOAD, 1);
+            init.visitLdcInsn(i);
+            init.visitInsn(Opcodes.AALOAD);
+            init.visitFieldInsn(Opcodes.PUTFIELD, CLASS_NAME, "c" + i, CONDITION_DESC);
+        }
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor test = cw.visitMethod(Opcodes.ACC_PUBLIC, "test", "(Ljava/lang/Object;)Z", null, null);
+        test.visitCode();
+        test.visitVarInsn(Opcodes.ALOAD, 1);
+        test.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(Map.class));
+        test.visitVarInsn(Opcodes.ASTORE, 1);
+
+        Label isFalse = new Label();
+        new Emitter(test).jump(root, isFalse, false);
+        test.visitInsn(Opcodes.ICONST_1);
+        test.visitInsn(Opcodes.IRETURN);
+        test.visitLabel(isFalse);
+        test.visitInsn(Opcodes.ICONST_0);
+        test.visitInsn(Opcodes.IRETURN);
+        test.visitMaxs(0, 0);
+        test.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    // Emits short-circuit jumping code; leaves are numbered in the same order as collectConditions
+    private static final class Emitter {
+        private final MethodVisitor mv;
+        private int nextCondition;
+
+        Emitter(MethodVisitor mv) {
+            this.mv = mv;
+        }
+
+        // Jumps to target when the node evaluates to jumpIf, otherwise falls through
+        void jump(ASTNode node, Label target, boolean jumpIf) {
+            List<ASTNode> children = node.getChildren();
+            switch (node.getType()) {
+                case "AND":
+                    junction(children, target, jumpIf, false);
+                    break;
+
+                case "OR":
+                    junction(children, target, jumpIf, true);
+                    break;
+
+                default:
+                    mv.visitVarInsn(Opcodes.ALOAD, 0);
+                    mv.visitFieldInsn(Opcodes.GETFIELD, CLASS_NAME, "c" + nextCondition++, CONDITION_DESC);
+                    mv.visitVarInsn(Opcodes.ALOAD, 1);
+                    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, CONDITION, "test", TEST_DESC, false);
+                    mv.visitJumpInsn(jumpIf ? Opcodes.IFNE : Opcodes.IFEQ, target);
+            }
+        }
+
+        // An AND short-circuits on a false child and an OR on a true child
+        private void junction(List<ASTNode> children, Label target, boolean jumpIf, boolean decidingValue) {
+            if (children.isEmpty()) {
+                // Empty AND is true and empty OR is false
+                if (jumpIf != decidingValue) {
+                    mv.visitJumpInsn(Opcodes.GOTO, target);
+                }
+                return;
+            }
+            if (jumpIf == decidingValue) {
+                for (ASTNode child : children) {
+                    jump(child, target, decidingValue);
+                }
+                return;
+            }
+            Label decided = new Label();
+            for (int i = 0; i < children.size() - 1; i++) {
+                jump(children.get(i), decided, decidingValue);
+            }
+            jump(children.get(children.size() - 1), target, jumpIf);
+            mv.visitLabel(decided);
+        }
+    }
+}
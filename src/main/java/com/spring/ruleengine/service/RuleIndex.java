@@ -0,0 +1,237 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.Operator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Discrimination index over stored rules. Each rule is filed under a few "guard" comparisons, at least
+// one of which must hold whenever the rule matches, so a record only needs to consider rules whose
+// guards it satisfies. String equality guards use hash lookups and numeric guards use sorted thresholds.
+class RuleIndex {
+
+    private final Map<String, Map<String, Set<Integer>>> stringEquals = new HashMap<>();
+    private final Map<String, NumericIndex> numeric = new HashMap<>();
+    private final BitSet unindexed = new BitSet(); // rules with no usable guard, always candidates
+    private final Map<Integer, List<Condition>> guardsBySlot = new HashMap<>();
+
+    // Thresholds of the numeric guards on one attribute, one sorted map per operator
+    private static final class NumericIndex {
+        final NavigableMap<Double, Set<Integer>> greater = new TreeMap<>();
+        final NavigableMap<Double, Set<Integer>> greaterOrEqual = new TreeMap<>();
+        final NavigableMap<Double, Set<Integer>> less = new TreeMap<>();
+        final NavigableMap<Double, Set<Integer>> lessOrEqual = new TreeMap<>();
+        final Map<Double, Set<Integer>> equal = new HashMap<>();
+
+        Map<Double, Set<Integer>> forOperator(Operator operator) {
+            switch (operator) {
+                case GT:
+                    return greater;
+                case GE:
+                    return greaterOrEqual;
+                case LT:
+                    return less;
+                case LE:
+                    return lessOrEqual;
+                default:
+                    return equal;
+            }
+        }
+
+        boolean isEmpty() {
+            return greater.isEmpty() && greaterOrEqual.isEmpty() && less.isEmpty()
+                    && lessOrEqual.isEmpty() && equal.isEmpty();
+        }
+    }
+
+    // A deep copy, for changing a network's copy without touching the published one
+    RuleIndex copy() {
+        RuleIndex copy = new RuleIndex();
+        for (Map.Entry<String, Map<String, Set<Integer>>> entry : stringEquals.entrySet()) {
+            Map<String, Set<Integer>> values = new HashMap<>();
+            entry.getValue().forEach((value, slots) -> values.put(value, new HashSet<>(slots)));
+            copy.stringEquals.put(entry.getKey(), values);
+        }
+        for (Map.Entry<String, NumericIndex> entry : numeric.entrySet()) {
+            NumericIndex source = entry.getValue();
+            NumericIndex target = new NumericIndex();
+            source.greater.forEach((value, slots) -> target.greater.put(value, new HashSet<>(slots)));
+            source.greaterOrEqual.forEach((value, slots) -> target.greaterOrEqual.put(value, new HashSet<>(slots)));
+            source.less.forEach((value, slots) -> target.less.put(value, new HashSet<>(slots)));
+            source.lessOrEqual.forEach((value, slots) -> target.lessOrEqual.put(value, new HashSet<>(slots)));
+            source.equal.forEach((value, slots) -> target.equal.put(value, new HashSet<>(slots)));
+            copy.numeric.put(entry.getKey(), target);
+        }
+        copy.unindexed.or(unindexed);
+        copy.guardsBySlot.putAll(guardsBySlot); // the guard lists are immutable
+        return copy;
+    }
+
+    void add(int slot, ASTNode root) {
+        remove(slot);
+        List<Condition> guards = guards(root);
+        if (guards == null) {
+            unindexed.set(slot);
+            return;
+        }
+        guards = guards.stream().distinct().toList();
+        guardsBySlot.put(slot, guards);
+        for (Condition guard : guards) {
+            if (guard.getValueType() == Condition.ValueType.STRING) {
+                stringEquals.computeIfAbsent(guard.getAttribute(), k -> new HashMap<>())
+                        .computeIfAbsent(guard.getStringValue(), k -> new HashSet<>()).add(slot);
+            } else {
+                numeric.computeIfAbsent(guard.getAttribute(), k -> new NumericIndex())
+                        .forOperator(guard.getOperator())
+                        .computeIfAbsent(guard.getDoubleValue(), k -> new HashSet<>()).add(slot);
+            }
+        }
+    }
+
+    void remove(int slot) {
+        unindexed.clear(slot);
+        List<Condition> guards = guardsBySlot.remove(slot);
+        if (guards == null) {
+            return;
+        }
+        for (Condition guard : guards) {
+            if (guard.getValueType() == Condition.ValueType.STRING) {
+                Map<String, Set<Integer>> values = stringEquals.get(guard.getAttribute());
+                removeFrom(values, guard.getStringValue(), slot);
+                if (values.isEmpty()) {
+                    stringEquals.remove(guard.getAttribute());
+                }
+            } else {
+                NumericIndex index = numeric.get(guard.getAttribute());
+                removeFrom(index.forOperator(guard.getOperator()), guard.getDoubleValue(), slot);
+                if (index.isEmpty()) {
+                    numeric.remove(guard.getAttribute());
+                }
+            }
+        }
+    }
+
+    // Sets the slot of every rule that could match the record; rules left unset are guaranteed not to match
+    void candidates(Map<String, Object> data, BitSet candidates) {
+        candidates.or(unindexed);
+        for (Map.Entry<String, Map<String, Set<Integer>>> entry : stringEquals.entrySet()) {
+            Object value = data.get(entry.getKey());
+            if (value instanceof String) {
+                addAll(candidates, entry.getValue().get(value));
+            }
+        }
+        for (Map.Entry<String, NumericIndex> entry : numeric.entrySet()) {
+            Double value = toDouble(data.get(entry.getKey()));
+            if (value == null) {
+                continue;
+            }
+            NumericIndex index = entry.getValue();
+            addAll(candidates, index.greater.headMap(value, false).values());
+            addAll(candidates, index.greaterOrEqual.headMap(value, true).values());
+            addAll(candidates, index.less.tailMap(value, false).values());
+            addAll(candidates, index.lessOrEqual.tailMap(value, true).values());
+            addAll(candidates, index.equal.get(value));
+        }
+    }
+
+    // Picks comparisons of which at least one must hold for the node to be true, or null if there are none.
+    // AND needs one child's guards (the fewest, preferring equality); OR needs the guards of every child.
+    private static List<Condition> guards(ASTNode node) {
+        switch (node.getType()) {
+            case "AND": {
+                List<Condition> best = null;
+                for (ASTNode child : node.getChildren()) {
+                    List<Condition> guards = guards(child);
+                    if (guards != null && (best == null || rank(guards) < rank(best))) {
+                        best = guards;
+                    }
+                }
+                return best;
+            }
+
+            case "OR": {
+                List<Condition> all = new ArrayList<>();
+                for (ASTNode child : node.getChildren()) {
+                    List<Condition> guards = guards(child);
+                    if (guards == null) {
+                        return null;
+                    }
+                    all.addAll(guards);
+                }
+                return all;
+            }
+
+            case "operand": {
+                Condition condition = node.getCondition();
+                if (condition == null || condition.getOperator() == Operator.NE
+                        || (condition.getValueType() == Condition.ValueType.STRING
+                        && condition.getOperator() != Operator.EQ)) {
+                    return null;
+                }
+                return List.of(condition);
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    // Lower is better: fewer guards first, and equality guards ahead of range guards
+    private static int rank(List<Condition> guards) {
+        int rank = guards.size() * 2;
+        for (Condition guard : guards) {
+            if (guard.getOperator() != Operator.EQ) {
+                return rank + 1;
+            }
+        }
+        return rank;
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static void addAll(BitSet candidates, Set<Integer> slots) {
+        if (slots != null) {
+            for (int slot : slots) {
+                candidates.set(slot);
+            }
+        }
+    }
+
+    private static void addAll(BitSet candidates, Collection<Set<Integer>> slotSets) {
+        for (Set<Integer> slots : slotSets) {
+            addAll(candidates, slots);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Integer>> map, K key, int slot) {
+        Set<Integer> slots = map.get(key);
+        if (slots != null) {
+            slots.remove(slot);
+            if (slots.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+}
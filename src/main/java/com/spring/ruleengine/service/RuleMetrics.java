@@ -0,0 +1,160 @@
+package com.spring.ruleengine.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Micrometer meters for the rule engine; one in sample-interval evaluations is timed.
+@Component
+public class RuleMetrics {
+
+    private static final String OTHER_RULES = "other";
+
+    private final MeterRegistry registry;
+    private final int maxTaggedRules;
+    private final boolean histograms;
+    private final int sampleInterval;
+
+    private final Timer parseTimer;
+    private final Counter parseErrors;
+    private final Timer combineTimer;
+    private final DistributionSummary combineInputs;
+    private final Map<String, RuleMeters> ruleMeters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> validationFailures = new ConcurrentHashMap<>();
+    private volatile RuleMeters otherRuleMeters;
+
+    @Autowired
+    public RuleMetrics(MeterRegistry registry,
+                       @Value("${rule.metrics.max-tagged-rules:1000}") int maxTaggedRules,
+                       @Value("${rule.metrics.histograms:false}") boolean histograms,
+                       @Value("${rule.metrics.sample-interval:64}") int sampleInterval) {
+        this.registry = registry;
+        this.maxTaggedRules = maxTaggedRules;
+        this.histograms = histograms;
+        this.sampleInterval = sampleInterval;
+        this.parseTimer = Timer.builder("rule.parse")
+                .description("Time spent parsing rule strings into ASTs")
+                .publishPercentileHistogram(histograms)
+                .register(registry);
+        this.parseErrors = Counter.builder("rule.parse.errors")
+                .description("Rule strings that failed to parse")
+                .register(registry);
+        this.combineTimer = Timer.builder("rule.combine")
+                .description("Time spent combining rules")
+                .publishPercentileHistogram(histograms)
+                .register(registry);
+        this.combineInputs = DistributionSummary.builder("rule.combine.inputs")
+                .description("Number of rules per combine request")
+                .register(registry);
+    }
+
+    // Meters backed by an empty composite registry, which records nothing; used when no registry is wired
+    public static RuleMetrics noop() {
+        return new RuleMetrics(new CompositeMeterRegistry(), 0, false, 0);
+    }
+
+    public void recordParse(long startNanos, boolean success) {
+        parseTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (!success) {
+            parseErrors.increment();
+        }
+    }
+
+    public void recordCombine(long startNanos, int inputCount) {
+        combineTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        combineInputs.record(inputCount);
+    }
+
+    // True for the evaluations that should be timed: one in sampleInterval, none when it is 0
+    public boolean shouldTime() {
+        return sampleInterval > 0 && (sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0);
+    }
+
+    public void recordEvaluation(String ruleString, EvaluationBackend backend, long startNanos) {
+        metersFor(ruleString).timer(backend).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Failures are rare, so every one is counted
+    public void recordEvaluationError(String ruleString) {
+        metersFor(ruleString).errors.increment();
+    }
+
+    public void recordValidationFailure(String reason) {
+        validationFailures.computeIfAbsent(reason, r -> Counter.builder("rule.validation.failures")
+                .description("Requests rejected before evaluation")
+                .tag("reason", r)
+                .register(registry)).increment();
+    }
+
+    // Stable identifier used as the "rule" tag: the first eight bytes of the SHA-256 of the rule string, so
+    // distinct rules practically never share a series
+    public static String ruleHash(String ruleString) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(ruleString.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private RuleMeters metersFor(String ruleString) {
+        RuleMeters meters = ruleMeters.get(ruleString);
+        if (meters != null) {
+            return meters;
+        }
+        // Cap the number of distinct rule tags; anything beyond the cap shares one series
+        if (ruleMeters.size() >= maxTaggedRules) {
+            if (otherRuleMeters == null) {
+                otherRuleMeters = new RuleMeters(OTHER_RULES);
+            }
+            return otherRuleMeters;
+        }
+        RuleMeters created = new RuleMeters(ruleHash(ruleString));
+        meters = ruleMeters.putIfAbsent(ruleString, created);
+        return meters != null ? meters : created;
+    }
+
+    private final class RuleMeters {
+        final String rule;
+        final AtomicReferenceArray<Timer> timers = new AtomicReferenceArray<>(EvaluationBackend.values().length);
+        final Counter errors;
+
+        RuleMeters(String rule) {
+            this.rule = rule;
+            errors = Counter.builder("rule.evaluate.errors")
+                    .description("Evaluations that failed, e.g. on missing or malformed attributes")
+                    .tag("rule", rule)
+                    .register(registry);
+        }
+
+        // Registering twice returns the same meter, so a race here only repeats the lookup
+        Timer timer(EvaluationBackend backend) {
+            Timer timer = timers.get(backend.ordinal());
+            if (timer == null) {
+                timer = Timer.builder("rule.evaluate")
+                        .description("Time spent evaluating a rule against one record")
+                        .tag("rule", rule)
+                        .tag("backend", backend.name().toLowerCase())
+                        .publishPercentileHistogram(histograms)
+                        .register(registry);
+                timers.set(backend.ordinal(), timer);
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,568 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.Condition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Rete-style network over many rules: identical comparisons and identical AND/OR subtrees are stored once
+// and shared between rules, so matching a record evaluates each shared node at most once.
+// A RuleIndex narrows each match down to the rules whose guard comparisons the record satisfies.
+// A network has no lock: it is built by one thread and, once published in a RuleSet, only read, so any
+// number of threads may match and run sessions against it concurrently. A change is made on a copy, which
+// shares the unchanged nodes with the published network.
+public class RuleNetwork {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+
+    private final Map<Object, Node> nodesByKey;
+    private final Deque<Integer> freeIds;
+    private int nextId;
+    private int[] refCounts; // by node id, number of parents and rule roots using the node
+
+    // Rules live in numbered slots so the index and the match loop work with ints rather than ids
+    private final Map<Long, Integer> slotsByRuleId;
+    private final Deque<Integer> freeSlots;
+    private Node[] ruleRoots;
+    private long[] ruleIds;
+    private int slotCount;
+    private final RuleIndex index; // null when every rule is scanned
+    private long version; // bumped on every add or remove
+    private volatile Dependencies dependencies; // built for sessions on first use after a change
+
+    public RuleNetwork() {
+        this(true);
+    }
+
+    public RuleNetwork(boolean indexed) {
+        this.nodesByKey = new HashMap<>();
+        this.freeIds = new ArrayDeque<>();
+        this.refCounts = new int[16];
+        this.slotsByRuleId = new HashMap<>();
+        this.freeSlots = new ArrayDeque<>();
+        this.ruleRoots = new Node[16];
+        this.ruleIds = new long[16];
+        this.index = indexed ? new RuleIndex() : null;
+    }
+
+    private RuleNetwork(RuleNetwork source) {
+        this.nodesByKey = new HashMap<>(source.nodesByKey);
+        this.freeIds = new ArrayDeque<>(source.freeIds);
+        this.nextId = source.nextId;
+        this.refCounts = source.refCounts.clone();
+        this.slotsByRuleId = new HashMap<>(source.slotsByRuleId);
+        this.freeSlots = new ArrayDeque<>(source.freeSlots);
+        this.ruleRoots = source.ruleRoots.clone();
+        this.ruleIds = source.ruleIds.clone();
+        this.slotCount = source.slotCount;
+        this.index = source.index == null ? null : source.index.copy();
+        this.version = source.version;
+        this.dependencies = source.dependencies;
+    }
+
+    // A network with the same rules that can be changed without affecting this one. Nodes keep their
+    // identity and ids, so a session opened on this network carries its results over to the copy.
+    public RuleNetwork copy() {
+        return new RuleNetwork(this);
+    }
+
+    // Immutable, so copies of a network share them
+    private static final class Node {
+        final int id; // index into the per-record memo
+        final Object key;
+        final String type;
+        final Condition condition; // set for leaves
+        final Node[] children; // set for AND/OR
+
+        Node(int id, Object key, String type, Condition condition, Node[] children) {
+            this.id = id;
+            this.key = key;
+            this.type = type;
+            this.condition = condition;
+            this.children = children;
+        }
+    }
+
+    // AND/OR nodes are shared when they have the same operator and the same set of child nodes
+    private record JunctionKey(String type, List<Integer> childIds) {
+    }
+
+    // Adds or replaces a rule; its leaves and subtrees are merged with the nodes already in the network
+    public void addRule(Long ruleId, ASTNode root) {
+        Node node = intern(root);
+        Integer slot = slotsByRuleId.get(ruleId);
+        if (slot != null) {
+            release(ruleRoots[slot]);
+        } else {
+            slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            if (slot == ruleRoots.length) {
+                ruleRoots = Arrays.copyOf(ruleRoots, slot * 2);
+                ruleIds = Arrays.copyOf(ruleIds, slot * 2);
+            }
+            slotsByRuleId.put(ruleId, slot);
+        }
+        ruleRoots[slot] = node;
+        ruleIds[slot] = ruleId;
+        if (index != null) {
+            index.add(slot, root);
+        }
+        version++;
+    }
+
+    public void removeRule(Long ruleId) {
+        Integer slot = slotsByRuleId.remove(ruleId);
+        if (slot != null) {
+            release(ruleRoots[slot]);
+            ruleRoots[slot] = null;
+            freeSlots.push(slot);
+            if (index != null) {
+                index.remove(slot);
+            }
+            version++;
+        }
+    }
+
+    // Returns the ids of all rules that match the record, in ascending order. A leaf whose attribute is
+    // missing or has the wrong type counts as false rather than failing the whole match.
+    public List<Long> match(Map<String, Object> data) {
+        byte[] memo = new byte[nextId];
+        List<Long> matches = new ArrayList<>();
+        BitSet candidates = new BitSet(slotCount);
+        if (index != null) {
+            index.candidates(data, candidates);
+        } else {
+            candidates.set(0, slotCount);
+        }
+        for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+            Node root = ruleRoots[slot];
+            if (root != null && evaluate(root, data, memo)) {
+                matches.add(ruleIds[slot]);
+            }
+        }
+        matches.sort(null);
+        return matches;
+    }
+
+    // Evaluates every node of every rule for the record and keeps the results for incremental updates
+    public Session openSession(Map<String, Object> data) {
+        Session session = new Session(new HashMap<>(data));
+        evaluateAll(session, getDependencies());
+        return session;
+    }
+
+    // Applies changed attribute values to the session's record (null removes the attribute) and returns the ids
+    // of the rules whose outcome flipped, in ascending order. Only leaves on a changed attribute are re-tested;
+    // a junction is recomputed from its count of true children when one of them flips, lowest nodes first,
+    // so each node is settled once. If rules were added or removed since the last call, only the nodes they
+    // brought in are evaluated first, and removed rules that matched or added rules that match count as flipped.
+    public List<Long> update(Session session, Map<String, Object> changes) {
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                session.record.remove(change.getKey());
+            } else {
+                session.record.put(change.getKey(), change.getValue());
+            }
+        }
+
+        Dependencies current = getDependencies();
+        List<Long> before = null;
+        if (session.dependencies != current) {
+            before = session.getMatches();
+            evaluateAll(session, current);
+        }
+
+        List<Long> flipped = new ArrayList<>();
+        PriorityQueue<Long> pending = new PriorityQueue<>(); // height in the high bits, node id in the low
+        BitSet queued = new BitSet();
+        for (String attribute : changes.keySet()) {
+            int[] leaves = current.leavesByAttribute.get(attribute);
+            if (leaves == null) {
+                continue;
+            }
+            // Every leaf here reads the same value, so look it up once
+            Object value = session.record.get(attribute);
+            for (int id : leaves) {
+                boolean result = value != null && test(current.nodes[id].condition, value);
+                if (result != session.results[id]) {
+                    session.results[id] = result;
+                    propagate(session, current, id, pending, queued, flipped);
+                }
+            }
+        }
+        while (!pending.isEmpty()) {
+            int id = (int) (long) pending.poll();
+            boolean result = junctionResult(current.nodes[id], session.trueCounts[id]);
+            if (result != session.results[id]) {
+                session.results[id] = result;
+                propagate(session, current, id, pending, queued, flipped);
+            }
+        }
+        if (before != null) {
+            return symmetricDifference(before, session.getMatches());
+        }
+        flipped.sort(null);
+        return flipped;
+    }
+
+    // Passes a node's flip on to its parents' true-child counts and records a flipped rule root. A parent is
+    // queued only when its count reaches or leaves the value that decides it (all children for an AND, none
+    // for an OR); counts move by one, so a parent that is never queued keeps its result.
+    private static void propagate(Session session, Dependencies dependencies, int id,
+                                  PriorityQueue<Long> pending, BitSet queued, List<Long> flipped) {
+        int delta = session.results[id] ? 1 : -1;
+        for (int parent : dependencies.parents[id]) {
+            int before = session.trueCounts[parent];
+            int after = before + delta;
+            session.trueCounts[parent] = after;
+            int threshold = dependencies.thresholds[parent];
+            if ((before == threshold || after == threshold) && !queued.get(parent)) {
+                queued.set(parent);
+                pending.add(((long) dependencies.heights[parent] << 32) | parent);
+            }
+        }
+        int[] slots = dependencies.slotsByRoot[id];
+        if (slots != null) {
+            for (int slot : slots) {
+                session.matched.flip(slot);
+                flipped.add(dependencies.ruleIds[slot]);
+            }
+        }
+    }
+
+    // Evaluates the session's record against every node. Nodes the session already has results for, from an
+    // earlier version of the network, keep them: a node's children are part of its identity, so its true-child
+    // count is still right.
+    private static void evaluateAll(Session session, Dependencies dependencies) {
+        Dependencies previous = session.dependencies;
+        boolean[] previousResults = session.results;
+        int[] previousCounts = session.trueCounts;
+        session.dependencies = dependencies;
+        session.results = new boolean[dependencies.nodes.length];
+        session.trueCounts = new int[dependencies.nodes.length];
+        session.matched = new BitSet(dependencies.ruleIds.length);
+        for (int id : dependencies.order) {
+            Node node = dependencies.nodes[id];
+            if (previous != null && id < previous.nodes.length && previous.nodes[id] == node) {
+                session.results[id] = previousResults[id];
+                session.trueCounts[id] = previousCounts[id];
+            } else if (node.condition != null) {
+                session.results[id] = test(node.condition, session.record);
+            } else {
+                int trueCount = 0;
+                for (Node child : node.children) {
+                    trueCount += session.results[child.id] ? 1 : 0;
+                }
+                session.trueCounts[id] = trueCount;
+                session.results[id] = junctionResult(node, trueCount);
+            }
+        }
+        for (int slot = 0; slot < dependencies.roots.length; slot++) {
+            Node root = dependencies.roots[slot];
+            if (root != null && session.results[root.id]) {
+                session.matched.set(slot);
+            }
+        }
+    }
+
+    private static boolean junctionResult(Node node, int trueCount) {
+        return "AND".equals(node.type) ? trueCount == node.children.length : trueCount > 0;
+    }
+
+    // Missing attributes and type mismatches count as false, as in match
+    private static boolean test(Condition condition, Map<String, Object> data) {
+        try {
+            return condition.test(data);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static boolean test(Condition condition, Object value) {
+        try {
+            return condition.test(value);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static List<Long> symmetricDifference(List<Long> before, List<Long> after) {
+        Set<Long> difference = new HashSet<>(before);
+        for (Long ruleId : after) {
+            if (!difference.remove(ruleId)) {
+                difference.add(ruleId);
+            }
+        }
+        List<Long> sorted = new ArrayList<>(difference);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    // Concurrent callers may build the same version twice, which is harmless
+    private Dependencies getDependencies() {
+        Dependencies current = dependencies;
+        if (current == null || current.version != version) {
+            current = new Dependencies(this);
+            dependencies = current;
+        }
+        return current;
+    }
+
+    public int getRuleCount() {
+        return slotsByRuleId.size();
+    }
+
+    // Number of distinct nodes, which is smaller than the total AST size when rules share conditions
+    public int getNodeCount() {
+        return nodesByKey.size();
+    }
+
+    private boolean evaluate(Node node, Map<String, Object> data, byte[] memo) {
+        byte cached = memo[node.id];
+        if (cached != UNKNOWN) {
+            return cached == TRUE;
+        }
+
+        boolean result;
+        if (node.condition != null) {
+            try {
+                result = node.condition.test(data);
+            } catch (RuntimeException e) {
+                result = false;
+            }
+        } else if ("AND".equals(node.type)) {
+            result = true;
+            for (Node child : node.children) {
+                if (!evaluate(child, data, memo)) {
+                    result = false;
+                    break;
+                }
+            }
+        } else {
+            result = false;
+            for (Node child : node.children) {
+                if (evaluate(child, data, memo)) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        memo[node.id] = result ? TRUE : FALSE;
+        return result;
+    }
+
+    private Node intern(ASTNode astNode) {
+        Object key;
+        Condition condition = null;
+        Node[] children = null;
+        switch (astNode.getType()) {
+            case "AND":
+            case "OR":
+                children = new Node[astNode.getChildren().size()];
+                Integer[] childIds = new Integer[children.length];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = intern(astNode.getChildren().get(i));
+                    childIds[i] = children[i].id;
+                }
+                Arrays.sort(childIds);
+                key = new JunctionKey(astNode.getType(), List.of(childIds));
+                break;
+
+            case "operand":
+                condition = astNode.getCondition();
+                if (condition == null) {
+                    throw new InvalidRuleFormatException("Invalid operand format: " + astNode.getValue());
+                }
+                key = condition;
+                break;
+
+            default:
+                throw new InvalidRuleFormatException("Unknown node type: " + astNode.getType());
+        }
+
+        Node node = nodesByKey.get(key);
+        if (node != null) {
+            // The children were interned for the lookup only; drop the extra references
+            if (children != null) {
+                for (Node child : children) {
+                    release(child);
+                }
+            }
+        } else {
+            int id = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+            if (id == refCounts.length) {
+                refCounts = Arrays.copyOf(refCounts, id * 2);
+            }
+            node = new Node(id, key, astNode.getType(), condition, children);
+            nodesByKey.put(key, node);
+        }
+        refCounts[node.id]++;
+        return node;
+    }
+
+    private void release(Node node) {
+        if (--refCounts[node.id] > 0) {
+            return;
+        }
+        nodesByKey.remove(node.key);
+        freeIds.push(node.id);
+        if (node.children != null) {
+            for (Node child : node.children) {
+                release(child);
+            }
+        }
+    }
+
+    // Per-record results of every node, owned by one caller at a time
+    public static final class Session {
+        private final Map<String, Object> record;
+        private Dependencies dependencies; // the network shape the results below belong to
+        private boolean[] results; // by node id
+        private int[] trueCounts; // by node id, for AND/OR nodes
+        private BitSet matched; // by rule slot
+
+        private Session(Map<String, Object> record) {
+            this.record = record;
+        }
+
+        public Map<String, Object> getRecord() {
+            return record;
+        }
+
+        // Ids of the rules the record currently matches, in ascending order
+        public List<Long> getMatches() {
+            List<Long> matches = new ArrayList<>();
+            for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+                matches.add(dependencies.ruleIds[slot]);
+            }
+            matches.sort(null);
+            return matches;
+        }
+    }
+
+    // Reverse edges of the network at one version: parents and height of each node, leaves by attribute,
+    // and the rule slots rooted at each node. Sessions keep the instance their results were computed against.
+    private static final class Dependencies {
+        final long version;
+        final Node[] nodes; // by id, null for free ids
+        final int[][] parents; // by id, one entry per parent edge
+        final int[] heights; // by id, 0 for leaves
+        final int[] thresholds; // by id, the true-child count that decides a junction: all for AND, none for OR
+        final int[] order; // live node ids, children before parents
+        final Map<String, int[]> leavesByAttribute;
+        final int[][] slotsByRoot; // by id, null unless some rule is rooted there
+        final Node[] roots; // by slot
+        final long[] ruleIds; // by slot
+
+        Dependencies(RuleNetwork network) {
+            version = network.version;
+            nodes = new Node[network.nextId];
+            for (Node node : network.nodesByKey.values()) {
+                nodes[node.id] = node;
+            }
+            roots = Arrays.copyOf(network.ruleRoots, network.slotCount);
+            ruleIds = Arrays.copyOf(network.ruleIds, network.slotCount);
+
+            heights = new int[nodes.length];
+            thresholds = new int[nodes.length];
+            int[] parentCounts = new int[nodes.length];
+            int[] slotCounts = new int[nodes.length];
+            Map<String, List<Integer>> leaves = new HashMap<>();
+            int live = 0;
+            for (Node node : nodes) {
+                if (node == null) {
+                    continue;
+                }
+                live++;
+                if (node.condition != null) {
+                    leaves.computeIfAbsent(node.condition.getAttribute(), a -> new ArrayList<>()).add(node.id);
+                } else {
+                    thresholds[node.id] = "AND".equals(node.type) ? node.children.length : 0;
+                    for (Node child : node.children) {
+                        parentCounts[child.id]++;
+                    }
+                }
+            }
+            for (Node root : roots) {
+                if (root != null) {
+                    slotCounts[root.id]++;
+                }
+            }
+
+            parents = new int[nodes.length][];
+            slotsByRoot = new int[nodes.length][];
+            for (int id = 0; id < nodes.length; id++) {
+                parents[id] = new int[parentCounts[id]];
+                if (slotCounts[id] > 0) {
+                    slotsByRoot[id] = new int[slotCounts[id]];
+                }
+                parentCounts[id] = 0;
+                slotCounts[id] = 0;
+            }
+            for (Node node : nodes) {
+                if (node != null && node.children != null) {
+                    for (Node child : node.children) {
+                        parents[child.id][parentCounts[child.id]++] = node.id;
+                    }
+                }
+            }
+            for (int slot = 0; slot < roots.length; slot++) {
+                if (roots[slot] != null) {
+                    slotsByRoot[roots[slot].id][slotCounts[roots[slot].id]++] = slot;
+                }
+            }
+
+            leavesByAttribute = new HashMap<>();
+            for (Map.Entry<String, List<Integer>> entry : leaves.entrySet()) {
+                leavesByAttribute.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+
+            // Counting sort by height, so every child comes before its parents
+            int maxHeight = 0;
+            for (Node node : nodes) {
+                if (node != null) {
+                    maxHeight = Math.max(maxHeight, height(node));
+                }
+            }
+            int[] starts = new int[maxHeight + 2];
+            for (Node node : nodes) {
+                if (node != null) {
+                    starts[heights[node.id] + 1]++;
+                }
+            }
+            for (int h = 1; h < starts.length; h++) {
+                starts[h] += starts[h - 1];
+            }
+            order = new int[live];
+            for (Node node : nodes) {
+                if (node != null) {
+                    order[starts[heights[node.id]]++] = node.id;
+                }
+            }
+        }
+
+        private int height(Node node) {
+            if (node.children == null || node.children.length == 0 || heights[node.id] > 0) {
+                return heights[node.id];
+            }
+            int height = 0;
+            for (Node child : node.children) {
+                height = Math.max(height, height(child));
+            }
+            heights[node.id] = height + 1;
+            return height + 1;
+        }
+    }
+}
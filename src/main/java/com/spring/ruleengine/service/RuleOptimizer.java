@@ -0,0 +1,323 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.Operator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Simplifies an AST: flattens nested junctions, shares identical subtrees, merges ranges and folds constants.
+// Constants are represented as empty junctions, since an empty AND is true and an empty OR is false everywhere.
+// Folding can drop conditions, so records missing an attribute are still evaluated against the rule as written.
+public final class RuleOptimizer {
+
+    private final Map<Object, ASTNode> nodesByKey = new HashMap<>();
+    private final Map<ASTNode, Integer> ids = new IdentityHashMap<>();
+
+    private RuleOptimizer() {
+    }
+
+    // Returns an optimized copy; the input tree is left untouched
+    public static ASTNode optimize(ASTNode root) {
+        return new RuleOptimizer().rewrite(root);
+    }
+
+    // Counts distinct nodes, so subtrees shared after optimization are counted once
+    public static int countNodes(ASTNode root) {
+        Set<ASTNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ASTNode> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            ASTNode node = pending.remove(pending.size() - 1);
+            if (seen.add(node)) {
+                pending.addAll(node.getChildren());
+            }
+        }
+        return seen.size();
+    }
+
+    public static boolean isConstant(ASTNode node) {
+        return node.getChildren().isEmpty() && ("AND".equals(node.getType()) || "OR".equals(node.getType()));
+    }
+
+    private ASTNode rewrite(ASTNode node) {
+        switch (node.getType()) {
+            case "AND":
+            case "OR":
+                return rewriteJunction(node);
+
+            default:
+                // Malformed operands have no condition; they are still shared by their text
+                Object key = node.getCondition() != null ? node.getCondition() : node.getType() + ":" + node.getValue();
+                return intern(key, node);
+        }
+    }
+
+    private ASTNode rewriteJunction(ASTNode node) {
+        String type = node.getType();
+        boolean and = "AND".equals(type);
+
+        // Flatten same-operator children and drop the identity constant; the absorbing constant decides the node
+        Map<Integer, ASTNode> children = new LinkedHashMap<>();
+        for (ASTNode original : node.getChildren()) {
+            ASTNode child = rewrite(original);
+            if (isConstant(child)) {
+                if ("AND".equals(child.getType()) != and) {
+                    return constant(!and);
+                }
+                continue;
+            }
+            if (type.equals(child.getType())) {
+                for (ASTNode grandChild : child.getChildren()) {
+                    children.putIfAbsent(ids.get(grandChild), grandChild);
+                }
+            } else {
+                children.putIfAbsent(ids.get(child), child);
+            }
+        }
+
+        List<ASTNode> merged = mergeRanges(new ArrayList<>(children.values()), and);
+        if (merged == null) {
+            return constant(false);
+        }
+        merged = absorb(merged);
+
+        if (merged.isEmpty()) {
+            return constant(and);
+        }
+        if (merged.size() == 1) {
+            return merged.get(0);
+        }
+
+        ASTNode result = new ASTNode(type);
+        int[] childIds = new int[merged.size()];
+        for (int i = 0; i < childIds.length; i++) {
+            ASTNode child = merged.get(i);
+            result.addChild(child);
+            childIds[i] = ids.get(child);
+        }
+        // Children are sorted in the key so that "a AND b" and "b AND a" share one node
+        Arrays.sort(childIds);
+        return intern(new JunctionKey(type, Arrays.toString(childIds)), result);
+    }
+
+    // Collapses the numeric and string comparisons on each attribute; returns null for an unsatisfiable AND
+    private List<ASTNode> mergeRanges(List<ASTNode> children, boolean and) {
+        Map<String, Bounds> boundsByAttribute = new HashMap<>();
+        for (ASTNode child : children) {
+            Condition condition = child.getCondition();
+            if (condition != null && (condition.getOperator() != Operator.NE)) {
+                boundsByAttribute.computeIfAbsent(condition.getAttribute(), a -> new Bounds()).add(child, and);
+            }
+        }
+
+        List<ASTNode> result = new ArrayList<>(children.size());
+        Set<String> emitted = new HashSet<>();
+        for (ASTNode child : children) {
+            Condition condition = child.getCondition();
+            Bounds bounds = condition == null ? null : boundsByAttribute.get(condition.getAttribute());
+            if (bounds == null || bounds.count < 2) {
+                result.add(child);
+                continue;
+            }
+            if (!emitted.add(condition.getAttribute())) {
+                continue;
+            }
+            List<ASTNode> leaves = and ? bounds.intersection() : bounds.union();
+            if (leaves == null) {
+                return null;
+            }
+            result.addAll(leaves);
+        }
+        return result;
+    }
+
+    // a AND (a OR b) is a, and a OR (a AND b) is a
+    private List<ASTNode> absorb(List<ASTNode> children) {
+        if (children.size() < 2) {
+            return children;
+        }
+        Set<ASTNode> siblings = Collections.newSetFromMap(new IdentityHashMap<>());
+        siblings.addAll(children);
+        List<ASTNode> result = new ArrayList<>(children.size());
+        for (ASTNode child : children) {
+            boolean absorbed = false;
+            for (ASTNode grandChild : child.getChildren()) {
+                if (siblings.contains(grandChild)) {
+                    absorbed = true;
+                    break;
+                }
+            }
+            if (!absorbed) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
+    private ASTNode constant(boolean value) {
+        return intern(value ? "true" : "false", new ASTNode(value ? "AND" : "OR"));
+    }
+
+    private ASTNode intern(Object key, ASTNode node) {
+        ASTNode existing = nodesByKey.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        nodesByKey.put(key, node);
+        ids.put(node, ids.size());
+        return node;
+    }
+
+    private record JunctionKey(String type, String childIds) {
+    }
+
+    // The comparisons on one attribute within a single junction
+    private static final class Bounds {
+        private int count;
+        private ASTNode lower; // GT or GE
+        private ASTNode upper; // LT or LE
+        private final List<ASTNode> equals = new ArrayList<>();
+        private final List<ASTNode> others = new ArrayList<>(); // comparisons that cannot be merged
+
+        void add(ASTNode leaf, boolean and) {
+            count++;
+            Condition condition = leaf.getCondition();
+            if (condition.getValueType() == Condition.ValueType.STRING) {
+                if (condition.getOperator() == Operator.EQ) {
+                    equals.add(leaf);
+                } else {
+                    others.add(leaf);
+                }
+                return;
+            }
+            switch (condition.getOperator()) {
+                case GT:
+                case GE:
+                    // An AND keeps the tightest bound and an OR the loosest
+                    if (lower == null || tighter(condition, lower.getCondition(), true) == and) {
+                        lower = leaf;
+                    }
+                    break;
+                case LT:
+                case LE:
+                    if (upper == null || tighter(condition, upper.getCondition(), false) == and) {
+                        upper = leaf;
+                    }
+                    break;
+                default:
+                    equals.add(leaf);
+            }
+        }
+
+        List<ASTNode> intersection() {
+            if (!others.isEmpty() || hasStringAndNumeric()) {
+                return all();
+            }
+            if (!equals.isEmpty()) {
+                // Distinct equalities cannot both hold; a single one makes the bounds redundant or contradictory
+                Condition first = equals.get(0).getCondition();
+                for (ASTNode leaf : equals) {
+                    if (!sameValue(first, leaf.getCondition())) {
+                        return null;
+                    }
+                }
+                if (first.getValueType() != Condition.ValueType.STRING
+                        && (!satisfies(first, lower) || !satisfies(first, upper))) {
+                    return null;
+                }
+                return List.of(equals.get(0));
+            }
+            if (lower != null && upper != null) {
+                int comparison = Double.compare(lower.getCondition().getDoubleValue(),
+                        upper.getCondition().getDoubleValue());
+                if (comparison > 0 || (comparison == 0 && (lower.getCondition().getOperator() == Operator.GT
+                        || upper.getCondition().getOperator() == Operator.LT))) {
+                    return null;
+                }
+            }
+            return bounds();
+        }
+
+        List<ASTNode> union() {
+            if (!others.isEmpty() || hasStringAndNumeric()) {
+                return all();
+            }
+            // Equalities already covered by the loosest bounds are redundant
+            List<ASTNode> result = bounds();
+            for (ASTNode leaf : equals) {
+                Condition condition = leaf.getCondition();
+                if (condition.getValueType() == Condition.ValueType.STRING
+                        || (!(lower != null && satisfies(condition, lower))
+                        && !(upper != null && satisfies(condition, upper)))) {
+                    result.add(leaf);
+                }
+            }
+            return result;
+        }
+
+        private List<ASTNode> bounds() {
+            List<ASTNode> result = new ArrayList<>(2);
+            if (lower != null) {
+                result.add(lower);
+            }
+            if (upper != null) {
+                result.add(upper);
+            }
+            return result;
+        }
+
+        // Mixed comparisons are left alone, only exact duplicates have been removed
+        private List<ASTNode> all() {
+            List<ASTNode> result = bounds();
+            result.addAll(equals);
+            result.addAll(others);
+            return result;
+        }
+
+        private boolean hasStringAndNumeric() {
+            boolean strings = false;
+            boolean numbers = lower != null || upper != null;
+            for (ASTNode leaf : equals) {
+                if (leaf.getCondition().getValueType() == Condition.ValueType.STRING) {
+                    strings = true;
+                } else {
+                    numbers = true;
+                }
+            }
+            return strings && numbers;
+        }
+
+        private static boolean tighter(Condition a, Condition b, boolean lowerBound) {
+            int comparison = Double.compare(a.getDoubleValue(), b.getDoubleValue());
+            if (lowerBound) {
+                return comparison > 0 || (comparison == 0 && a.getOperator() == Operator.GT);
+            }
+            return comparison < 0 || (comparison == 0 && a.getOperator() == Operator.LT);
+        }
+
+        private static boolean satisfies(Condition equality, ASTNode bound) {
+            if (bound == null) {
+                return true;
+            }
+            Condition condition = bound.getCondition();
+            return condition.getOperator().test(equality.getDoubleValue(), condition.getDoubleValue());
+        }
+
+        private static boolean sameValue(Condition a, Condition b) {
+            if (a.getValueType() == Condition.ValueType.STRING || b.getValueType() == Condition.ValueType.STRING) {
+                return a.getValueType() == b.getValueType() && a.getStringValue().equals(b.getStringValue());
+            }
+            return a.getDoubleValue() == b.getDoubleValue();
+        }
+    }
+}
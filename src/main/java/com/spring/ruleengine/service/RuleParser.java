@@ -0,0 +1,226 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.Operator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Single-pass rule parser. The scanner reads each token once and the parser keeps an explicit stack of
+// open parentheses instead of recursing, so time and memory are linear in the rule length and nesting
+// depth is not limited by the thread stack. AND binds tighter than OR, and chains of the same operator
+// become one node with n children.
+public final class RuleParser {
+
+    private final String rule;
+    private int pos;
+
+    private RuleParser(String rule) {
+        this.rule = rule;
+    }
+
+    public static ASTNode parse(String rule) {
+        return new RuleParser(rule).parse();
+    }
+
+    // Operands of one parenthesised group: finished OR terms plus the AND term being built
+    private static final class Group {
+        final int openedAt;
+        final List<ASTNode> orTerms = new ArrayList<>();
+        List<ASTNode> andTerms = new ArrayList<>();
+
+        Group(int openedAt) {
+            this.openedAt = openedAt;
+        }
+
+        void closeAndTerm() {
+            orTerms.add(junction("AND", andTerms));
+            andTerms = new ArrayList<>();
+        }
+
+        ASTNode finish() {
+            closeAndTerm();
+            return junction("OR", orTerms);
+        }
+    }
+
+    private ASTNode parse() {
+        Deque<Group> groups = new ArrayDeque<>();
+        Group group = new Group(-1);
+        boolean expectOperand = true;
+
+        while (true) {
+            skipWhitespace();
+            if (pos >= rule.length()) {
+                break;
+            }
+            int start = pos;
+            char ch = rule.charAt(pos);
+
+            if (ch == '(') {
+                if (!expectOperand) {
+                    throw error("Expected AND or OR before '('", start);
+                }
+                pos++;
+                groups.push(group);
+                group = new Group(start);
+                continue;
+            } else if (ch == ')') {
+                if (expectOperand || groups.isEmpty()) {
+                    throw error(groups.isEmpty() ? "Unmatched ')'" : "Expected a condition before ')'", start);
+                }
+                pos++;
+                ASTNode node = group.finish();
+                group = groups.pop();
+                group.andTerms.add(node);
+            } else if (isIdentifierStart(ch)) {
+                String word = readIdentifier();
+                if (word.equals("AND") || word.equals("OR")) {
+                    if (expectOperand) {
+                        throw error("Expected a condition before " + word, start);
+                    }
+                    if (word.equals("OR")) {
+                        group.closeAndTerm();
+                    }
+                    expectOperand = true;
+                    continue;
+                }
+                if (!expectOperand) {
+                    throw error("Expected AND or OR before '" + word + "'", start);
+                }
+                group.andTerms.add(readComparison(word));
+            } else {
+                throw error(expectOperand ? "Expected a condition" : "Expected AND or OR", start);
+            }
+            expectOperand = false;
+        }
+
+        if (!groups.isEmpty()) {
+            throw error("Unclosed '('", group.openedAt);
+        }
+        if (expectOperand) {
+            throw error(group.orTerms.isEmpty() && group.andTerms.isEmpty()
+                    ? "Rule is empty" : "Expected a condition at end of rule", rule.length());
+        }
+        return flatten(group.finish());
+    }
+
+    // Reads "<operator> <value>" after the attribute name
+    private ASTNode readComparison(String attribute) {
+        skipWhitespace();
+        int operatorStart = pos;
+        while (pos < rule.length() && "<>=!".indexOf(rule.charAt(pos)) >= 0) {
+            pos++;
+        }
+        String symbol = rule.substring(operatorStart, pos);
+        Operator operator = Operator.fromSymbol(symbol.equals("==") ? "=" : symbol);
+        if (operator == null) {
+            throw error(symbol.isEmpty() ? "Expected a comparison operator after '" + attribute + "'"
+                    : "Unknown operator '" + symbol + "'", operatorStart);
+        }
+
+        skipWhitespace();
+        int valueStart = pos;
+        String literal;
+        if (pos < rule.length() && rule.charAt(pos) == '\'') {
+            int close = rule.indexOf('\'', pos + 1);
+            if (close < 0) {
+                throw error("Unterminated string", valueStart);
+            }
+            pos = close + 1;
+            literal = rule.substring(valueStart, pos);
+        } else {
+            if (pos < rule.length() && rule.charAt(pos) == '-') {
+                pos++;
+            }
+            while (pos < rule.length() && (Character.isDigit(rule.charAt(pos)) || rule.charAt(pos) == '.')) {
+                pos++;
+            }
+            literal = rule.substring(valueStart, pos);
+        }
+
+        Condition condition = literal.isEmpty() ? null : Condition.of(attribute, operator, literal);
+        if (condition == null) {
+            throw error("Expected a number or quoted string after '" + symbol + "'", valueStart);
+        }
+        ASTNode node = new ASTNode("operand", condition.toString());
+        node.setCondition(condition);
+        return node;
+    }
+
+    // Wraps terms in an AND/OR node; nested nodes with the same operator are spliced in by flatten
+    private static ASTNode junction(String type, List<ASTNode> terms) {
+        if (terms.size() == 1) {
+            return terms.get(0);
+        }
+        ASTNode node = new ASTNode(type);
+        terms.forEach(node::addChild);
+        return node;
+    }
+
+    // Splices AND/OR children into a parent with the same operator. Each node is visited once, so rules
+    // nested like ((((a AND b) AND c) AND d) ...) stay linear instead of copying a growing child list per group.
+    private static ASTNode flatten(ASTNode root) {
+        Deque<ASTNode> junctions = new ArrayDeque<>();
+        Deque<ASTNode> pending = new ArrayDeque<>();
+        if (isJunction(root)) {
+            junctions.push(root);
+        }
+        while (!junctions.isEmpty()) {
+            ASTNode node = junctions.pop();
+            List<ASTNode> children = new ArrayList<>();
+            pushChildren(pending, node);
+            while (!pending.isEmpty()) {
+                ASTNode child = pending.pop();
+                if (child.getType().equals(node.getType())) {
+                    pushChildren(pending, child);
+                } else {
+                    children.add(child);
+                    if (isJunction(child)) {
+                        junctions.push(child);
+                    }
+                }
+            }
+            node.getChildren().clear();
+            node.getChildren().addAll(children);
+        }
+        return root;
+    }
+
+    private static void pushChildren(Deque<ASTNode> pending, ASTNode node) {
+        List<ASTNode> children = node.getChildren();
+        for (int i = children.size() - 1; i >= 0; i--) {
+            pending.push(children.get(i));
+        }
+    }
+
+    private static boolean isJunction(ASTNode node) {
+        return "AND".equals(node.getType()) || "OR".equals(node.getType());
+    }
+
+    private String readIdentifier() {
+        int start = pos;
+        while (pos < rule.length() && (Character.isLetterOrDigit(rule.charAt(pos)) || rule.charAt(pos) == '_')) {
+            pos++;
+        }
+        return rule.substring(start, pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < rule.length() && Character.isWhitespace(rule.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean isIdentifierStart(char ch) {
+        return Character.isLetter(ch) || ch == '_';
+    }
+
+    private InvalidRuleFormatException error(String message, int position) {
+        return new InvalidRuleFormatException(message + " at position " + position + ".");
+    }
+}
@@ -1,16 +1,44 @@
 package com.spring.ruleengine.service;
 
+import com.spring.ruleengine.config.RuleExecutors;
 import com.spring.ruleengine.exception.InvalidDataFormatException;
 import com.spring.ruleengine.exception.InvalidRuleFormatException;
 import com.spring.ruleengine.exception.KeyNotFoundException;
 import com.spring.ruleengine.exception.MissingAttributeException;
 import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.AttributeSchema;
+import com.spring.ruleengine.model.AttributeType;
+import com.spring.ruleengine.model.ColumnBatch;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.ConditionPool;
+import com.spring.ruleengine.model.EvaluationTrace;
+import com.spring.ruleengine.model.FlatRule;
 import com.spring.ruleengine.model.RuleEntity;
+import com.spring.ruleengine.model.SlotRecord;
+import com.spring.ruleengine.model.SlotRule;
 import com.spring.ruleengine.repository.RuleRepository;
+import com.spring.ruleengine.repository.RuleSetSignature;
+import com.spring.ruleengine.repository.RuleSetVersionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -18,42 +46,97 @@ import java.util.stream.Collectors;
 @Service
 public class RuleService {
 
+    private static final Logger log = LoggerFactory.getLogger(RuleService.class);
+
     @Autowired
     private RuleRepository ruleRepository;
 
-    private static final Set<String> attributeCatalog = new HashSet<>(
-            Set.of(
-                    "age", "department", "income", "spend", "salary", "experience",
-                    "position", "location", "education", "maritalStatus", "gender",
-                    "employmentType", "creditScore", "loanAmount", "loanType",
-                    "employmentStatus", "children", "dependentCount", "vehicleType",
-                    "propertyOwnership", "annualIncome", "monthlyExpense", "savings",
-                    "taxBracket", "healthInsurance", "lifeInsurance", "disabilityInsurance",
-                    "investments", "retirementFund", "bonus", "jobLevel",
-                    "promotionHistory", "projectCount", "certifications", "languages",
-                    "workHoursPerWeek", "vacationDays", "performanceRating",
-                    "disciplinaryActions", "companyTenure", "contractLength",
-                    "jobSatisfaction", "customerFeedback", "revenueGenerated",
-                    "salesTargetAchieved", "attendance", "remoteWorkPercentage",
-                    "overtimeHours", "stockOptions", "volunteerHours", "innovationScore",
-                    "trainingHours", "commuteTime", "teamSize", "managerFeedback",
-                    "careerProgression", "leadershipPotential", "skillsAssessment",
-                    "projectDeadlineMet", "clientSatisfaction", "stressLevel",
-                    "riskTolerance", "financialLiabilities", "mortgagePayments",
-                    "rentPayments", "utilityExpenses", "childcareCosts",
-                    "tuitionFees", "otherDebts", "partnerIncome", "familySupport",
-                    "investmentReturns", "annualBonus", "commissionEarned",
-                    "travelExpenses", "housingAllowance", "relocationAllowance",
-                    "internetUsage", "digitalSkills", "socialMediaEngagement",
-                    "networkingEventsAttended", "professionalAffiliations",
-                    "workplaceAccidents", "wellnessProgramParticipation",
-                    "mentalHealthSupport", "physicalActivityLevel", "dietaryHabits",
-                    "smokingStatus", "alcoholConsumption", "legalIssues",
-                    "immigrationStatus", "visaType", "citizenshipStatus",
-                    "retirementEligibility", "pensionPlan", "profitSharing",
-                    "severancePay", "unemploymentBenefits", "grade"
-            )
-    );
+    @Autowired
+    private RuleCache ruleCache;
+
+    @Autowired(required = false)
+    private RuleExecutors ruleExecutors;
+
+    @Value("${rule.batch.chunk-size:1024}")
+    private int batchChunkSize = 1024;
+
+    @Autowired(required = false)
+    private RuleMetrics ruleMetrics = RuleMetrics.noop();
+
+    @Autowired(required = false)
+    private AdaptiveRuleOptimizer adaptiveOptimizer;
+
+    @Autowired(required = false)
+    private RuleTracer ruleTracer;
+
+    @Value("${rule.memory.compact-stored-rules:true}")
+    private boolean compactStoredRules = true;
+
+    @Autowired(required = false)
+    private RuleCluster ruleCluster;
+
+    @Autowired(required = false)
+    private RuleSetVersionRepository ruleSetVersionRepository;
+
+    @Value("${rule.snapshot.path:}")
+    private String snapshotPath = "";
+
+    @Value("${rule.cache.stored-max-size:1000}")
+    private int storedCacheSize = 1000;
+
+    // Stored rules the current rule set does not hold (another partition's, or saved since the last reload),
+    // compiled on first lookup. Dropped when a new rule set is published, so a deleted rule is not served.
+    private final Map<Long, CompiledRule> storedRules = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CompiledRule> eldest) {
+            return size() > storedCacheSize;
+        }
+    };
+    private long storedRulesVersion; // rule set version the entries above were looked up against
+
+    private final AtomicReference<RuleSet> ruleSet = new AtomicReference<>(); // null until first loaded
+    private final Object reloadLock = new Object(); // serializes reloads; readers never take it
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    // Conditions shared by FLAT rules, capped so that ad-hoc rule strings cannot grow it without bound
+    private final ConditionPool conditionPool = new ConditionPool(100_000);
+
+    @Value("${rule.evaluation.backend:INTERPRETER}")
+    private EvaluationBackend defaultBackend = EvaluationBackend.INTERPRETER;
+
+    // The attribute catalog. A record value of another type than the declared one is still accepted and
+    // compared as before; the type only decides how the value is stored in a SlotRecord.
+    private static final AttributeSchema schema = AttributeSchema.builder()
+            .add(AttributeType.INT,
+                    "age", "experience", "creditScore", "children", "dependentCount", "jobLevel",
+                    "promotionHistory", "projectCount", "certifications", "languages", "vacationDays",
+                    "disciplinaryActions", "contractLength", "stockOptions", "teamSize", "stressLevel",
+                    "networkingEventsAttended", "professionalAffiliations", "workplaceAccidents", "legalIssues")
+            .add(AttributeType.DOUBLE,
+                    "income", "spend", "salary", "loanAmount", "annualIncome", "monthlyExpense", "savings",
+                    "taxBracket", "investments", "retirementFund", "bonus", "workHoursPerWeek",
+                    "performanceRating", "companyTenure", "jobSatisfaction", "customerFeedback",
+                    "revenueGenerated", "salesTargetAchieved", "attendance", "remoteWorkPercentage",
+                    "overtimeHours", "volunteerHours", "innovationScore", "trainingHours", "commuteTime",
+                    "managerFeedback", "skillsAssessment", "clientSatisfaction", "financialLiabilities",
+                    "mortgagePayments", "rentPayments", "utilityExpenses", "childcareCosts", "tuitionFees",
+                    "otherDebts", "partnerIncome", "familySupport", "investmentReturns", "annualBonus",
+                    "commissionEarned", "travelExpenses", "housingAllowance", "relocationAllowance",
+                    "internetUsage", "socialMediaEngagement", "profitSharing", "severancePay",
+                    "unemploymentBenefits")
+            .add(AttributeType.STRING,
+                    "department", "position", "location", "education", "loanType", "vehicleType",
+                    "propertyOwnership", "healthInsurance", "lifeInsurance", "disabilityInsurance",
+                    "careerProgression", "leadershipPotential", "projectDeadlineMet", "riskTolerance",
+                    "digitalSkills", "wellnessProgramParticipation", "mentalHealthSupport",
+                    "physicalActivityLevel", "dietaryHabits", "smokingStatus", "alcoholConsumption",
+                    "immigrationStatus", "visaType", "citizenshipStatus", "retirementEligibility",
+                    "pensionPlan", "grade")
+            .addEnum("gender", "Male", "Female")
+            .addEnum("maritalStatus", "Single", "Married", "Divorced", "Widowed")
+            .addEnum("employmentType", "Full-time", "Part-time", "Contract")
+            .addEnum("employmentStatus", "Employed", "Unemployed", "Self-employed", "Retired")
+            .build();
 
 
     // Validates the rule string
@@ -81,34 +164,381 @@ public class RuleService {
 
     // Validates if the attribute exists in the catalog
     public void validateAttribute(String attribute) throws InvalidRuleFormatException {
-        if (!attributeCatalog.contains(attribute)) {
+        if (!schema.contains(attribute)) {
             throw new InvalidRuleFormatException("Attribute '" + attribute + "' is not part of the catalog.");
         }
     }
 
+    public boolean isKnownAttribute(String attribute) {
+        return schema.contains(attribute);
+    }
+
+    public AttributeSchema getSchema() {
+        return schema;
+    }
+
+    // Attributes the rule references that the data does not contain, in rule order
+    public List<String> findMissingAttributes(CompiledRule rule, Map<String, Object> data) {
+        List<String> missing = null;
+        for (String attribute : rule.getAttributes()) {
+            if (!data.containsKey(attribute)) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(attribute);
+            }
+        }
+        return missing == null ? List.of() : missing;
+    }
+
     public ASTNode createRule(String ruleString) {
         if (ruleString == null || ruleString.trim().isEmpty()) {
             throw new InvalidRuleFormatException("Rule string cannot be null or empty.");
         }
 
+        long start = System.nanoTime();
+        try {
+            ASTNode root = RuleParser.parse(ruleString);
+            ruleMetrics.recordParse(start, true);
+            return root;
+        } catch (InvalidRuleFormatException e) {
+            ruleMetrics.recordParse(start, false);
+            throw new InvalidRuleFormatException("Invalid rule format: " + e.getMessage());
+        }
+    }
+
+    // Returns the compiled rule from the cache, parsing it only on the first request
+    public CompiledRule getCompiledRule(String ruleString) {
+        if (ruleString == null || ruleString.trim().isEmpty()) {
+            throw new InvalidRuleFormatException("Rule string cannot be null or empty.");
+        }
+
+        return ruleCache.get(normalizeRule(ruleString), key -> new CompiledRule(key, createRule(key)));
+    }
+
+    // Returns the compiled form of a stored rule from the current rule set
+    public CompiledRule getCompiledRule(Long ruleId) {
+        RuleSet current = getRuleSet();
+        CompiledRule compiled = current.getRule(ruleId);
+        if (compiled != null) {
+            return compiled;
+        }
+        synchronized (storedRules) {
+            if (current.getVersion() > storedRulesVersion) {
+                storedRules.clear();
+                storedRulesVersion = current.getVersion();
+            }
+            compiled = current.getVersion() == storedRulesVersion ? storedRules.get(ruleId) : null;
+            if (compiled != null) {
+                return compiled;
+            }
+        }
+        // Owned by another partition or saved after the current snapshot was built; read outside the lock
+        RuleEntity ruleEntity = ruleRepository.findById(ruleId)
+                .orElseThrow(() -> new KeyNotFoundException("Rule not found: " + ruleId));
+        compiled = compileStored(ruleEntity);
+        synchronized (storedRules) {
+            if (storedRulesVersion == current.getVersion() && storedCacheSize > 0) {
+                CompiledRule existing = storedRules.putIfAbsent(ruleId, compiled);
+                return existing != null ? existing : compiled;
+            }
+        }
+        return compiled;
+    }
+
+    // Loads every stored rule into the rule set and builds its match network. Returns the number of rules loaded.
+    public int warmUp() {
+        RuleSet loaded = reloadRules();
+        loaded.getNetwork();
+        return loaded.size();
+    }
+
+    // Publishes the rules in the snapshot file, when one is configured, before the database is first asked for
+    // them. The next reload compares the file's signature with the table's and reads the rows only if they
+    // differ. A partitioned instance owns only part of the rules and loads them from the database instead.
+    @PostConstruct
+    public void loadSnapshot() {
+        if (!isSnapshotConfigured() || (ruleCluster != null && ruleCluster.isPartitioned())) {
+            return;
+        }
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) {
+            log.info("No rule snapshot at {}, stored rules will be loaded from the database", path);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            RuleSnapshotFile file = RuleSnapshotFile.open(path);
+            ruleSet.compareAndSet(null, new RuleSet(1, file));
+            log.info("Mapped {} rules from snapshot {} in {} ms", file.size(), path, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Ignoring rule snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    public boolean isSnapshotConfigured() {
+        return snapshotPath != null && !snapshotPath.isBlank();
+    }
+
+    public record SnapshotExport(String path, int rules, long bytes) {
+    }
+
+    // Writes every stored rule to the snapshot file for the next start to map, reusing the compiled forms in
+    // the current rule set. Rules that cannot be parsed are left out, as they are from the rule set.
+    public SnapshotExport exportSnapshot() {
+        if (!isSnapshotConfigured()) {
+            throw new IllegalStateException("rule.snapshot.path is not set");
+        }
+        // Read before the rules, like a reload, so a save landing in between makes the file look stale rather than current
+        RuleSetSignature signature = ruleRepository.signature();
+        RuleSet current = ruleSet.get();
+        Map<Long, CompiledRule> rules = new HashMap<>();
+        for (RuleEntity ruleEntity : ruleRepository.findAll()) {
+            try {
+                CompiledRule compiled = current == null ? null : current.getRule(ruleEntity.getId());
+                rules.put(ruleEntity.getId(), compiled != null ? compiled : compileStored(ruleEntity));
+            } catch (InvalidRuleFormatException e) {
+                log.warn("Leaving stored rule {} out of the snapshot: {}", ruleEntity.getId(), e.getMessage());
+            }
+        }
+        Path path = Path.of(snapshotPath);
+        try {
+            long bytes = RuleSnapshotFile.write(path, signature, rules);
+            return new SnapshotExport(path.toAbsolutePath().toString(), rules.size(), bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write rule snapshot " + path, e);
+        }
+    }
+
+    // Returns the current snapshot of the stored rules, loading it on first use
+    public RuleSet getRuleSet() {
+        RuleSet current = ruleSet.get();
+        return current != null ? current : reloadRules();
+    }
+
+    // Builds a new snapshot if the stored rules changed since the current one was loaded and publishes it with
+    // a single reference swap. Readers never lock, and requests holding the old snapshot finish on it.
+    // Only the ids are read to find what changed: rules already in the current snapshot keep their compiled
+    // form, including any adaptive reordering, and only added rules are fetched. The match network is a copy
+    // of the current one with just the added and removed rules applied, so open sessions stay incremental.
+    public RuleSet reloadRules() {
+        synchronized (reloadLock) {
+            RuleSet current = ruleSet.get();
+            // Read before the rules, so a save landing in between can only cause one extra reload later
+            RuleSetSignature signature = ruleRepository.signature();
+            if (current != null && current.getSignature().equals(signature)) {
+                return current;
+            }
+
+            long start = System.nanoTime();
+            Set<Long> storedIds = loadOwnedIds();
+            Map<Long, CompiledRule> rules = new HashMap<>();
+            Set<Long> unparsedIds = new HashSet<>();
+            List<Long> addedIds = new ArrayList<>();
+            for (Long ruleId : storedIds) {
+                CompiledRule compiled = current == null ? null : current.getRule(ruleId);
+                if (compiled != null) {
+                    rules.put(ruleId, compiled);
+                } else if (current != null && current.getUnparsedIds().contains(ruleId)) {
+                    unparsedIds.add(ruleId);
+                } else {
+                    addedIds.add(ruleId);
+                }
+            }
+
+            RuleNetwork network = current == null ? new RuleNetwork() : current.getNetwork().copy();
+            int removed = 0;
+            if (current != null) {
+                for (Long ruleId : current.getRuleIds()) {
+                    if (!storedIds.contains(ruleId)) {
+                        network.removeRule(ruleId);
+                        removed++;
+                    }
+                }
+            }
+            Map<Long, CompiledRule> added = compileAll(loadRules(addedIds));
+            for (Long ruleId : addedIds) {
+                CompiledRule compiled = added.get(ruleId);
+                if (compiled == null) {
+                    unparsedIds.add(ruleId);
+                    continue;
+                }
+                rules.put(ruleId, compiled);
+                try {
+                    network.addRule(ruleId, compiled.getRoot());
+                } catch (InvalidRuleFormatException e) {
+                    log.warn("Skipping stored rule {} that cannot be matched: {}", ruleId, e.getMessage());
+                }
+                compact(compiled);
+            }
+
+            RuleSet next = new RuleSet(current == null ? 1 : current.getVersion() + 1, signature, rules, unparsedIds,
+                    network);
+            ruleSet.set(next);
+            log.debug("Published rule set version {} with {} rules ({} added, {} removed) in {} ms", next.getVersion(),
+                    rules.size(), addedIds.size(), removed, (System.nanoTime() - start) / 1_000_000);
+            return next;
+        }
+    }
+
+    // Ids of all stored rules, or when partitioned across a cluster only of the ones this instance owns
+    private Set<Long> loadOwnedIds() {
+        boolean partitioned = ruleCluster != null && ruleCluster.isPartitioned();
+        Set<Long> owned = new HashSet<>();
+        for (Long ruleId : ruleRepository.findAllIds()) {
+            if (!partitioned || ruleCluster.owns(ruleId)) {
+                owned.add(ruleId);
+            }
+        }
+        return owned;
+    }
+
+    // Fetches the rules by id in chunks, so rules that are not needed are never read
+    private List<RuleEntity> loadRules(List<Long> ruleIds) {
+        List<RuleEntity> ruleEntities = new ArrayList<>(ruleIds.size());
+        for (int start = 0; start < ruleIds.size(); start += batchChunkSize) {
+            ruleEntities.addAll(ruleRepository.findAllById(ruleIds.subList(start, Math.min(start + batchChunkSize, ruleIds.size()))));
+        }
+        return ruleEntities;
+    }
+
+    // Lets this instance and, in cluster mode, the other instances pick up a rule write. The write has already
+    // committed, so a failure here is logged rather than reported as a failed save that a caller might retry.
+    private void publishChange() {
         try {
-            return parseRuleToAST(ruleString);
-        } catch (Exception e) {
-            throw new InvalidRuleFormatException("Invalid rule format: " + ruleString);
+            if (ruleCluster != null && ruleCluster.isEnabled() && ruleSetVersionRepository != null) {
+                ruleSetVersionRepository.bump();
+            }
+            requestReload();
+        } catch (RuntimeException e) {
+            log.warn("Rule write committed but not yet published, it will be picked up by a later reload: {}",
+                    e.getMessage());
+        }
+    }
+
+    // Reloads on the reload thread once a rule set has been loaded; requests made while one is pending
+    // are coalesced into it. Without the executors (outside Spring) the reload runs on the caller.
+    public void requestReload() {
+        if (ruleSet.get() == null) {
+            return;
+        }
+        if (ruleExecutors == null) {
+            reloadRules();
+            return;
+        }
+        if (reloadRequested.compareAndSet(false, true)) {
+            ruleExecutors.getReloadExecutor().execute(() -> {
+                reloadRequested.set(false);
+                try {
+                    reloadRules();
+                } catch (RuntimeException e) {
+                    log.warn("Rule reload failed, keeping version {}: {}", ruleSet.get().getVersion(), e.getMessage());
+                }
+            });
         }
     }
 
+    // Compiles the rules in parallel on the evaluation pool. Rules saved before the AST was persisted get it
+    // written back.
+    private Map<Long, CompiledRule> compileAll(List<RuleEntity> ruleEntities) {
+        Map<Long, CompiledRule> rules = new ConcurrentHashMap<>();
+        List<RuleEntity> missingAst = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < ruleEntities.size(); start += batchChunkSize) {
+            List<RuleEntity> chunk = ruleEntities.subList(start, Math.min(start + batchChunkSize, ruleEntities.size()));
+            Runnable task = () -> {
+                for (RuleEntity ruleEntity : chunk) {
+                    try {
+                        boolean hadAst = ruleEntity.getAstJson() != null;
+                        CompiledRule compiled = compileStored(ruleEntity);
+                        rules.put(ruleEntity.getId(), compiled);
+                        if (!hadAst) {
+                            ruleEntity.setAstJson(RuleAstCodec.encode(compiled.getRoot()));
+                            missingAst.add(ruleEntity);
+                        }
+                    } catch (InvalidRuleFormatException e) {
+                        log.warn("Skipping stored rule {} that cannot be parsed: {}", ruleEntity.getId(), e.getMessage());
+                    }
+                }
+            };
+            chunks.add(ruleExecutors != null
+                    ? CompletableFuture.runAsync(task, ruleExecutors.getEvaluationExecutor())
+                    : CompletableFuture.runAsync(task, Runnable::run));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+
+        if (!missingAst.isEmpty()) {
+            ruleRepository.saveAll(missingAst);
+        }
+        return rules;
+    }
+
+    // Keeps only the flat form of a stored rule once it is in the network. Not done while the adaptive optimizer
+    // is on, since it samples and reorders the tree.
+    private void compact(CompiledRule rule) {
+        if (compactStoredRules && (adaptiveOptimizer == null || !adaptiveOptimizer.isEnabled()) && getFlat(rule) != null) {
+            rule.compact(RuleService::reparseStored);
+        }
+    }
+
+    // The tree compileStored would have produced, rebuilt for a compacted rule
+    private static ASTNode reparseStored(String ruleString) {
+        return RuleOptimizer.optimize(RuleParser.parse(ruleString));
+    }
+
+    // Stored rules are evaluated in their optimized form, read from the persisted AST when there is one
+    private CompiledRule compileStored(RuleEntity ruleEntity) {
+        String ruleString = normalizeRule(ruleEntity.getRuleString());
+        if (ruleEntity.getAstJson() != null) {
+            try {
+                return new CompiledRule(ruleString, RuleAstCodec.decode(ruleEntity.getAstJson()), RuleParser::parse);
+            } catch (InvalidRuleFormatException e) {
+                log.warn("Reparsing stored rule {}: {}", ruleEntity.getId(), e.getMessage());
+            }
+        }
+        return new CompiledRule(ruleString, RuleOptimizer.optimize(createRule(ruleString)), RuleParser::parse);
+    }
+
+    public RuleCache.Stats getCacheStats() {
+        return ruleCache.getStats();
+    }
+
+    // Collapses whitespace outside quoted literals so equivalent rule strings share a cache entry
+    static String normalizeRule(String ruleString) {
+        StringBuilder normalized = new StringBuilder(ruleString.length());
+        boolean inQuotes = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < ruleString.length(); i++) {
+            char ch = ruleString.charAt(i);
+            if (!inQuotes && Character.isWhitespace(ch)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (ch == '\'') {
+                inQuotes = !inQuotes;
+            }
+            normalized.append(ch);
+        }
+        return normalized.toString();
+    }
+
     public ASTNode combineRules(List<String> rules) {
         if (rules == null || rules.isEmpty()) {
             throw new InvalidRuleFormatException("Rule list cannot be null or empty.");
         }
 
+        long start = System.nanoTime();
         List<ASTNode> ruleASTs = rules.stream()
                 .map(this::createRule)
                 .collect(Collectors.toList());
 
-        long andCount = rules.stream().filter(r -> r.toUpperCase().contains("AND")).count();
-        long orCount = rules.stream().filter(r -> r.toUpperCase().contains("OR")).count();
+        // The dominant operator is taken from the parsed roots, not from substrings of the rule text
+        long andCount = ruleASTs.stream().filter(ast -> "AND".equals(ast.getType())).count();
+        long orCount = ruleASTs.stream().filter(ast -> "OR".equals(ast.getType())).count();
         String dominantOperator = andCount >= orCount ? "AND" : "OR";
 
         ASTNode combinedAST = new ASTNode(dominantOperator);
@@ -116,7 +546,9 @@ public class RuleService {
             combinedAST.addChild(ruleAST);
         }
 
-        return combinedAST;
+        ASTNode optimizedAST = RuleOptimizer.optimize(combinedAST);
+        ruleMetrics.recordCombine(start, rules.size());
+        return optimizedAST;
     }
 
     public boolean evaluateRule(ASTNode node, Map<String, Object> data) {
@@ -131,56 +563,273 @@ public class RuleService {
         }
     }
 
-    private ASTNode parseRuleToAST(String ruleString) {
-        ruleString = ruleString.trim();
+    public EvaluationBackend getDefaultBackend() {
+        return defaultBackend;
+    }
 
-        // Remove surrounding parentheses
-        while (ruleString.startsWith("(") && ruleString.endsWith(")")) {
-            ruleString = ruleString.substring(1, ruleString.length() - 1).trim();
+    // Evaluates a compiled rule with the chosen backend, falling back to the interpreter if it cannot be compiled
+    public boolean evaluateRule(CompiledRule rule, Map<String, Object> data, EvaluationBackend backend) {
+        if (rule == null || data == null) {
+            throw new InvalidRuleFormatException("Node and data must not be null.");
         }
 
-        Stack<Integer> stack = new Stack<>();
-        for (int i = 0; i < ruleString.length(); i++) {
-            char ch = ruleString.charAt(i);
-            if (ch == '(') {
-                stack.push(i);
-            } else if (ch == ')') {
-                if (!stack.isEmpty()) stack.pop();
-            } else if ((ch == 'A' || ch == 'O') && stack.isEmpty()) {
-                String operator = ch == 'A' ? "AND" : "OR";
-                String[] parts = splitOnFirst(ruleString.substring(0, i), operator);
-                ASTNode parentNode = new ASTNode(operator);
-                parentNode.addChild(parseRuleToAST(parts[0].trim()));
-                parentNode.addChild(parseRuleToAST(ruleString.substring(i + operator.length()).trim()));
-                return parentNode;
+        boolean timed = ruleMetrics.shouldTime();
+        long start = timed ? System.nanoTime() : 0L;
+        try {
+            boolean result = evaluateCompiled(rule, data, backend);
+            if (timed) {
+                ruleMetrics.recordEvaluation(rule.getRuleString(), backend, start);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            ruleMetrics.recordEvaluationError(rule.getRuleString());
+            throw e;
+        }
+    }
+
+    // Evaluates a compiled rule with the tracing interpreter, whatever the default backend
+    public EvaluationTrace traceRule(CompiledRule rule, Map<String, Object> data) {
+        if (rule == null || data == null) {
+            throw new InvalidRuleFormatException("Node and data must not be null.");
+        }
+
+        boolean timed = ruleMetrics.shouldTime();
+        long start = timed ? System.nanoTime() : 0L;
+        try {
+            EvaluationTrace trace = RuleTracer.trace(rule.getRoot(), data);
+            if (timed) {
+                ruleMetrics.recordEvaluation(rule.getRuleString(), EvaluationBackend.INTERPRETER, start);
+            }
+            return trace;
+        } catch (RuntimeException e) {
+            ruleMetrics.recordEvaluationError(rule.getRuleString());
+            throw e;
+        }
+    }
+
+    // An optimized or reordered rule gives the same answers and errors as the rule as written: a record
+    // missing one of its attributes, or one the rewritten tree fails on, is evaluated as written
+    private boolean evaluateCompiled(CompiledRule rule, Map<String, Object> data, EvaluationBackend backend) {
+        if (!rule.isRewritten()) {
+            return evaluateCurrent(rule, data, backend);
+        }
+        if (!data.keySet().containsAll(rule.getAttributes())) {
+            return evaluateRule(rule.getWrittenRoot(), data);
+        }
+        try {
+            return evaluateCurrent(rule, data, backend);
+        } catch (RuntimeException e) {
+            return evaluateRule(rule.getWrittenRoot(), data);
+        }
+    }
+
+    private boolean evaluateCurrent(CompiledRule rule, Map<String, Object> data, EvaluationBackend backend) {
+        if (adaptiveOptimizer != null && adaptiveOptimizer.shouldSample()) {
+            return adaptiveOptimizer.evaluateSampled(rule, data);
+        }
+        if (ruleTracer != null && ruleTracer.shouldSample()) {
+            return ruleTracer.evaluateSampled(rule, data);
+        }
+        if (backend == EvaluationBackend.BYTECODE) {
+            Predicate<Map<String, Object>> predicate = getBytecode(rule);
+            if (predicate != null) {
+                return predicate.test(data);
+            }
+        } else if (backend == EvaluationBackend.FLAT || backend == EvaluationBackend.SLOT) {
+            // A record that arrives as a map gains nothing from being copied into slots, so SLOT runs the flat
+            // form; slots are used where the record is bound straight from JSON, as on /evaluate/stream
+            FlatRule flat = getFlat(rule);
+            if (flat != null) {
+                return flat.test(data);
+            }
+        }
+        return interpret(rule, data);
+    }
+
+    // A compacted rule has no tree to interpret; its flat form gives the same results and errors
+    private boolean interpret(CompiledRule rule, Map<String, Object> data) {
+        return rule.isCompact() ? rule.getFlat().test(data) : evaluateRule(rule.getRoot(), data);
+    }
+
+    // Evaluates a compiled rule against a record already bound to the schema. A rule that cannot be resolved
+    // to slots, because it uses an attribute outside the schema or a malformed operand, is interpreted over
+    // the record's values instead.
+    public boolean evaluateRule(CompiledRule rule, SlotRecord record) {
+        if (rule == null || record == null) {
+            throw new InvalidRuleFormatException("Node and data must not be null.");
+        }
+
+        boolean timed = ruleMetrics.shouldTime();
+        long start = timed ? System.nanoTime() : 0L;
+        try {
+            SlotRule slotRule = getSlotRule(rule);
+            boolean result;
+            if (slotRule == null) {
+                result = evaluateCompiled(rule, record.toMap(), EvaluationBackend.INTERPRETER);
+            } else if (!rule.isRewritten()) {
+                result = slotRule.test(record);
+            } else {
+                // Same as for maps: errors are reported in the written order
+                result = evaluateRewritten(rule, slotRule, record);
             }
+            if (timed) {
+                ruleMetrics.recordEvaluation(rule.getRuleString(), EvaluationBackend.SLOT, start);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            ruleMetrics.recordEvaluationError(rule.getRuleString());
+            throw e;
         }
+    }
 
-        // Handle remaining OR operations
-        if (ruleString.contains(" OR ")) {
-            String[] operands = ruleString.split(" OR ");
-            ASTNode orNode = new ASTNode("OR");
-            for (String operand : operands) {
-                orNode.addChild(parseRuleToAST(operand.trim()));
+    private boolean evaluateRewritten(CompiledRule rule, SlotRule slotRule, SlotRecord record) {
+        for (String attribute : rule.getAttributes()) {
+            int slot = schema.getSlot(attribute);
+            if (slot < 0 || !record.isPresent(slot)) {
+                return evaluateRule(rule.getWrittenRoot(), record.toMap());
             }
-            return orNode;
+        }
+        try {
+            return slotRule.test(record);
+        } catch (RuntimeException e) {
+            return evaluateRule(rule.getWrittenRoot(), record.toMap());
+        }
+    }
+
+    // True when the rule evaluates from slots only, so a record bound to the schema holds everything it reads
+    public boolean hasSlotRule(CompiledRule rule) {
+        return getSlotRule(rule) != null;
+    }
+
+    // Evaluates one rule against many records, optionally splitting them into chunks on the evaluation pool
+    public boolean[] evaluateBatch(CompiledRule rule, List<Map<String, Object>> records,
+                                   EvaluationBackend backend, boolean parallel) {
+        if (rule == null || records == null) {
+            throw new InvalidRuleFormatException("Rule and records must not be null.");
         }
 
-        // Create a node for a single operand
-        return new ASTNode("operand", ruleString.replaceAll("^\\(|\\)$", "").trim());
+        boolean[] results = new boolean[records.size()];
+        if (!parallel || ruleExecutors == null || records.size() <= batchChunkSize) {
+            evaluateRange(rule, records, backend, results, 0, records.size());
+            return results;
+        }
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < records.size(); start += batchChunkSize) {
+            int from = start;
+            int to = Math.min(start + batchChunkSize, records.size());
+            chunks.add(CompletableFuture.runAsync(
+                    () -> evaluateRange(rule, records, backend, results, from, to),
+                    ruleExecutors.getEvaluationExecutor()));
+        }
+        try {
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    // Evaluates a rule over column-oriented rows, returning a bitset with bit i set when row i matches
+    public long[] evaluateColumnar(CompiledRule rule, ColumnBatch batch) {
+        if (rule == null || batch == null) {
+            throw new InvalidRuleFormatException("Rule and columns must not be null.");
+        }
+
+        return ColumnarEvaluator.evaluate(rule.getRoot(), batch);
+    }
+
+    private void evaluateRange(CompiledRule rule, List<Map<String, Object>> records, EvaluationBackend backend,
+                               boolean[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            try {
+                results[i] = evaluateRule(rule, records.get(i), backend);
+            } catch (RuntimeException e) {
+                throw new InvalidDataFormatException("Record " + i + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private Predicate<Map<String, Object>> getBytecode(CompiledRule rule) {
+        Predicate<Map<String, Object>> predicate = rule.getBytecode();
+        if (predicate != null || rule.isBytecodeUnavailable()) {
+            return predicate;
+        }
+
+        // Concurrent first evaluations may compile twice; the loser's class is simply dropped
+        try {
+            predicate = RuleCompiler.compile(rule.getRoot());
+            rule.setBytecode(predicate);
+        } catch (RuntimeException e) {
+            log.warn("Falling back to the interpreter for rule '{}': {}", rule.getRuleString(), e.getMessage());
+            rule.setBytecodeUnavailable(true);
+        }
+        return predicate;
+    }
+
+    private FlatRule getFlat(CompiledRule rule) {
+        FlatRule flat = rule.getFlat();
+        if (flat != null || rule.isFlatUnavailable()) {
+            return flat;
+        }
+
+        try {
+            flat = FlatRule.from(rule.getRoot(), conditionPool);
+            rule.setFlat(flat);
+        } catch (RuntimeException e) {
+            log.warn("Falling back to the interpreter for rule '{}': {}", rule.getRuleString(), e.getMessage());
+            rule.setFlatUnavailable(true);
+        }
+        return flat;
+    }
+
+    private SlotRule getSlotRule(CompiledRule rule) {
+        SlotRule slotRule = rule.getSlotRule();
+        if (slotRule != null || rule.isSlotRuleUnavailable()) {
+            return slotRule;
+        }
+
+        FlatRule flat = getFlat(rule);
+        slotRule = flat == null ? null : SlotRule.from(flat, schema);
+        if (slotRule == null) {
+            log.debug("Rule '{}' cannot be resolved to schema slots, evaluating it from maps", rule.getRuleString());
+            rule.setSlotRuleUnavailable(true);
+        } else {
+            rule.setSlotRule(slotRule);
+        }
+        return slotRule;
     }
 
     private boolean evaluate(ASTNode node, Map<String, Object> data) {
+        List<ASTNode> children = node.getChildren();
         switch (node.getType()) {
             case "AND":
-                // Evaluate all children in AND node
-                return node.getChildren().stream().allMatch(child -> evaluate(child, data));
+                // Evaluate all children in AND node, stopping at the first false child
+                for (int i = 0; i < children.size(); i++) {
+                    if (!evaluate(children.get(i), data)) {
+                        return false;
+                    }
+                }
+                return true;
 
             case "OR":
                 // Evaluate children in OR node; return true if any child is true
-                return node.getChildren().stream().anyMatch(child -> evaluate(child, data));
+                for (int i = 0; i < children.size(); i++) {
+                    if (evaluate(children.get(i), data)) {
+                        return true;
+                    }
+                }
+                return false;
 
             case "operand":
+                Condition condition = node.getCondition();
+                if (condition != null) {
+                    return condition.test(data);
+                }
+                // Malformed operands are not pre-parsed; re-parse them to report the error
                 return evaluateOperand(node.getValue(), data);
 
             default:
@@ -261,15 +910,114 @@ public class RuleService {
         }
     }
 
-    private String[] splitOnFirst(String str, String delimiter) {
-        int index = str.indexOf(delimiter);
-        if (index == -1) return new String[]{str};
-        return new String[]{str.substring(0, index).trim(), str.substring(index + delimiter.length()).trim()};
+    public RuleEntity saveRule(String ruleString) {
+        RuleEntity ruleEntity = newRuleEntity(ruleString);
+        RuleEntity savedRule = ruleRepository.save(ruleEntity);
+        // The rule set picks up the new rule on the next reload; by-id lookups compile it on their own until then
+        publishChange();
+        return savedRule;
     }
 
-    public RuleEntity saveRule(String ruleString) {
+    // Saves many rules in one transaction; with sequence ids Hibernate sends the inserts as JDBC batches
+    public List<RuleEntity> saveRules(List<String> ruleStrings) {
+        List<RuleEntity> ruleEntities = new ArrayList<>(ruleStrings.size());
+        for (String ruleString : ruleStrings) {
+            ruleEntities.add(newRuleEntity(ruleString));
+        }
+        List<RuleEntity> savedRules = ruleRepository.saveAll(ruleEntities);
+        publishChange();
+        return savedRules;
+    }
+
+    private RuleEntity newRuleEntity(String ruleString) {
         RuleEntity ruleEntity = new RuleEntity();
         ruleEntity.setRuleString(ruleString);
-        return ruleRepository.save(ruleEntity);
+        try {
+            ruleEntity.setAstJson(RuleAstCodec.encode(compileStored(ruleEntity).getRoot()));
+        } catch (InvalidRuleFormatException e) {
+            // Unparseable rules are still stored, as before, but are never matched
+            log.warn("Saving rule that cannot be parsed: {}", e.getMessage());
+        }
+        return ruleEntity;
+    }
+
+    // Saves on the persistence pool when one is configured, otherwise on the calling thread.
+    // Throws RejectedExecutionException when the pool's queue is full.
+    public CompletableFuture<RuleEntity> saveRuleAsync(String ruleString) {
+        ExecutorService persistence = ruleExecutors == null ? null : ruleExecutors.getPersistenceExecutor();
+        if (persistence == null) {
+            return CompletableFuture.completedFuture(saveRule(ruleString));
+        }
+        return CompletableFuture.supplyAsync(() -> saveRule(ruleString), persistence);
+    }
+
+    public CompletableFuture<Void> deleteRuleAsync(Long ruleId) {
+        ExecutorService persistence = ruleExecutors == null ? null : ruleExecutors.getPersistenceExecutor();
+        if (persistence == null) {
+            deleteRule(ruleId);
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> deleteRule(ruleId), persistence);
+    }
+
+    public void deleteRule(Long ruleId) {
+        if (!ruleRepository.existsById(ruleId)) {
+            throw new KeyNotFoundException("Rule not found: " + ruleId);
+        }
+        ruleRepository.deleteById(ruleId);
+        publishChange();
+    }
+
+    // Returns the ids of all stored rules that match the record
+    public List<Long> matchAllRules(Map<String, Object> data) {
+        if (data == null) {
+            throw new InvalidRuleFormatException("Data must not be null.");
+        }
+
+        if (ruleCluster == null || !ruleCluster.isPartitioned()) {
+            return getRuleSet().getNetwork().match(data);
+        }
+
+        // The peers work on their partitions while this instance matches its own
+        CompletableFuture<List<Long>> remote = ruleCluster.matchPeers(data);
+        List<Long> matches = new ArrayList<>(getRuleSet().getNetwork().match(data));
+        try {
+            matches.addAll(remote.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        matches.sort(null);
+        return matches;
+    }
+
+    // Matches only the rules this instance holds; the other nodes call this when scattering a match
+    public List<Long> matchLocalRules(Map<String, Object> data) {
+        if (data == null) {
+            throw new InvalidRuleFormatException("Data must not be null.");
+        }
+
+        return getRuleSet().getNetwork().match(data);
+    }
+
+    // Evaluates every stored rule against the record and keeps per-node results for updateSession. When the
+    // cluster is partitioned a session covers only the rules this instance owns.
+    public RuleNetwork.Session openSession(Map<String, Object> data) {
+        if (data == null) {
+            throw new InvalidRuleFormatException("Data must not be null.");
+        }
+
+        return getRuleSet().getNetwork().openSession(data);
+    }
+
+    // Applies changed attributes to the session's record and returns the ids of the rules whose outcome flipped
+    public List<Long> updateSession(RuleNetwork.Session session, Map<String, Object> changes) {
+        if (session == null || changes == null) {
+            throw new InvalidRuleFormatException("Session and changes must not be null.");
+        }
+
+        return getRuleSet().getNetwork().update(session, changes);
     }
 }
@@ -0,0 +1,77 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.KeyNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Open incremental evaluation sessions by id. Each session holds one record and the result of every node of
+// the stored rules for it, so an update only re-tests the leaves on the changed attributes. The least recently
+// used session is dropped once max-sessions are open.
+@Service
+public class RuleSessionService {
+
+    @Autowired
+    private RuleService ruleService;
+
+    private final int maxSessions;
+    private final Map<String, RuleNetwork.Session> sessions;
+
+    public RuleSessionService(@Value("${rule.session.max-sessions:10000}") int maxSessions) {
+        this.maxSessions = maxSessions;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RuleNetwork.Session> eldest) {
+                return size() > RuleSessionService.this.maxSessions;
+            }
+        };
+    }
+
+    public record Opened(String sessionId, List<Long> matches) {
+    }
+
+    public record Updated(List<Long> flipped, List<Long> matches) {
+    }
+
+    public Opened open(Map<String, Object> data) {
+        RuleNetwork.Session session = ruleService.openSession(data);
+        String sessionId = UUID.randomUUID().toString();
+        synchronized (sessions) {
+            sessions.put(sessionId, session);
+        }
+        return new Opened(sessionId, session.getMatches());
+    }
+
+    public Updated update(String sessionId, Map<String, Object> changes) {
+        RuleNetwork.Session session = get(sessionId);
+        // Updates to one session are applied one at a time; different sessions update concurrently
+        synchronized (session) {
+            List<Long> flipped = ruleService.updateSession(session, changes);
+            return new Updated(flipped, session.getMatches());
+        }
+    }
+
+    public void close(String sessionId) {
+        synchronized (sessions) {
+            if (sessions.remove(sessionId) == null) {
+                throw new KeyNotFoundException("Session not found: " + sessionId);
+            }
+        }
+    }
+
+    private RuleNetwork.Session get(String sessionId) {
+        RuleNetwork.Session session;
+        synchronized (sessions) {
+            session = sessions.get(sessionId);
+        }
+        if (session == null) {
+            throw new KeyNotFoundException("Session not found: " + sessionId);
+        }
+        return session;
+    }
+}
@@ -0,0 +1,97 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.repository.RuleSetSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+// Immutable snapshot of the stored rules: their compiled forms by id and the match network built from them.
+// A new version is built off the request path and published by swapping one reference, so a request that
+// has read a snapshot finishes on it even if a newer one is published meanwhile.
+// A snapshot read from a RuleSnapshotFile decodes its rules on first lookup and builds its network on first match.
+public final class RuleSet {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSet.class);
+
+    private final long version;
+    private final RuleSetSignature signature; // repository fingerprint read before the rules were loaded
+    private final Map<Long, CompiledRule> rules; // unmodifiable, null when backed by a file
+    private final Set<Long> unparsedIds; // stored rules left out because they cannot be parsed
+    private final RuleSnapshotFile file; // null when loaded from the repository
+    private volatile RuleNetwork network; // never modified once built
+
+    public RuleSet(long version, RuleSetSignature signature, Map<Long, CompiledRule> rules, Set<Long> unparsedIds,
+                   RuleNetwork network) {
+        this.version = version;
+        this.signature = signature;
+        this.rules = Map.copyOf(rules);
+        this.unparsedIds = Set.copyOf(unparsedIds);
+        this.file = null;
+        this.network = network;
+    }
+
+    public RuleSet(long version, RuleSnapshotFile file) {
+        this.version = version;
+        this.signature = file.getSignature();
+        this.rules = null;
+        this.unparsedIds = Set.of();
+        this.file = file;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public RuleSetSignature getSignature() {
+        return signature;
+    }
+
+    public CompiledRule getRule(Long ruleId) {
+        return rules != null ? rules.get(ruleId) : file.getRule(ruleId);
+    }
+
+    public Collection<Long> getRuleIds() {
+        return rules != null ? rules.keySet() : file.getRuleIds();
+    }
+
+    // Ids of stored rules that were read but could not be parsed, so a reload need not read them again
+    public Set<Long> getUnparsedIds() {
+        return unparsedIds;
+    }
+
+    public int size() {
+        return rules != null ? rules.size() : file.size();
+    }
+
+    public RuleNetwork getNetwork() {
+        RuleNetwork built = network;
+        if (built == null) {
+            synchronized (this) {
+                built = network;
+                if (built == null) {
+                    built = buildNetwork();
+                    network = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    // Decodes every rule in the file into a new network
+    private RuleNetwork buildNetwork() {
+        RuleNetwork built = new RuleNetwork();
+        for (Long ruleId : file.getRuleIds()) {
+            try {
+                built.addRule(ruleId, file.getRule(ruleId).getRoot());
+            } catch (InvalidRuleFormatException e) {
+                log.warn("Skipping snapshot rule {} that cannot be matched: {}", ruleId, e.getMessage());
+            }
+        }
+        return built;
+    }
+}
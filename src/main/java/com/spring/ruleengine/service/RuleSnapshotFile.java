@@ -0,0 +1,372 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.Operator;
+import com.spring.ruleengine.repository.RuleSetSignature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Binary snapshot of compiled rules, memory-mapped read-only; each rule is decoded on first lookup. Layout:
+//
+//   header       int magic, int format version, long count, long maxId, long idSum (the repository signature),
+//                int rule count, int string count, int condition count, int strings offset, int rules offset
+//   index        rule count x (long id, int offset of the rule from the start of the file), sorted by id
+//   strings      string count x (varint length, UTF-8 bytes): attributes, literals and malformed operands
+//   conditions   condition count x (varint attribute id, operator ordinal byte, varint literal id)
+//   rules        per rule: varint length and UTF-8 bytes of the rule string, then the AST in preorder, each
+//                node a tag byte followed by: AND/OR - varint child count and the children; comparison -
+//                varint condition id; malformed operand - varint string id of the operand as written
+public final class RuleSnapshotFile {
+
+    private static final int MAGIC = 0x52554C53; // "RULS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 52;
+    private static final int INDEX_ENTRY_BYTES = 12;
+
+    private static final byte AND = 0;
+    private static final byte OR = 1;
+    private static final byte COMPARISON = 2;
+    private static final byte MALFORMED = 3;
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private final Path path;
+    private final MappedByteBuffer buffer; // only read with absolute gets, so threads can share it
+    private final RuleSetSignature signature;
+    private final int ruleCount;
+    private final String[] strings;
+    private final Condition[] conditions;
+    private final String[] conditionValues; // operand text of each condition, as the parser writes it
+    private final AtomicReferenceArray<CompiledRule> decoded; // by index position, filled on first lookup
+
+    private RuleSnapshotFile(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a rule snapshot: " + path);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported rule snapshot version " + buffer.getInt(4) + ": " + path);
+        }
+        this.signature = new RuleSetSignature(buffer.getLong(8), buffer.getLong(16), buffer.getLong(24));
+        this.ruleCount = buffer.getInt(32);
+        int stringCount = buffer.getInt(36);
+        int conditionCount = buffer.getInt(40);
+        int stringsOffset = buffer.getInt(44);
+        int rulesOffset = buffer.getInt(48);
+        if (ruleCount < 0 || stringsOffset != HEADER_BYTES + (long) ruleCount * INDEX_ENTRY_BYTES
+                || rulesOffset > buffer.capacity()) {
+            throw new IOException("Truncated rule snapshot: " + path);
+        }
+
+        this.strings = new String[stringCount];
+        Cursor cursor = new Cursor(stringsOffset);
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = cursor.string();
+        }
+        this.conditions = new Condition[conditionCount];
+        this.conditionValues = new String[conditionCount];
+        for (int i = 0; i < conditionCount; i++) {
+            String attribute = strings[cursor.varint()];
+            Operator operator = OPERATORS[cursor.next()];
+            conditions[i] = Condition.of(attribute, operator, strings[cursor.varint()]);
+            if (conditions[i] == null) {
+                throw new IOException("Invalid comparison " + i + " in rule snapshot: " + path);
+            }
+            conditionValues[i] = conditions[i].toString();
+        }
+        if (cursor.position != rulesOffset) {
+            throw new IOException("Corrupt rule snapshot: " + path);
+        }
+        this.decoded = new AtomicReferenceArray<>(ruleCount);
+    }
+
+    // Maps the file; the mapping stays valid after the channel is closed
+    public static RuleSnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Rule snapshot larger than 2 GB: " + path);
+            }
+            try {
+                return new RuleSnapshotFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (IndexOutOfBoundsException | IllegalStateException | NegativeArraySizeException e) {
+                throw new IOException("Corrupt rule snapshot: " + path, e);
+            }
+        }
+    }
+
+    // Writes the rules to a temporary file next to path and renames it into place; returns the size in bytes.
+    // Windows refuses to replace a file that is still mapped, so there the rename fails while a running
+    // instance has path open; write to a new path and point rule.snapshot.path at it instead.
+    public static long write(Path path, RuleSetSignature signature, Map<Long, CompiledRule> rules) throws IOException {
+        Tables tables = new Tables(new HashMap<>(), new ArrayList<>(), new HashMap<>(), new ByteArrayOutputStream());
+        ByteArrayOutputStream ruleBytes = new ByteArrayOutputStream();
+        long[] ids = new long[rules.size()];
+        int[] offsets = new int[rules.size()];
+        int count = 0;
+        for (Map.Entry<Long, CompiledRule> rule : new TreeMap<>(rules).entrySet()) {
+            ids[count] = rule.getKey();
+            offsets[count++] = ruleBytes.size();
+            writeString(ruleBytes, rule.getValue().getRuleString());
+            writeNode(ruleBytes, rule.getValue().getParsedRoot(), tables);
+        }
+
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        for (String string : tables.strings()) {
+            writeString(stringBytes, string);
+        }
+        long stringsOffset = HEADER_BYTES + (long) count * INDEX_ENTRY_BYTES;
+        long rulesOffset = stringsOffset + stringBytes.size() + tables.conditionBytes().size();
+        if (rulesOffset + ruleBytes.size() > Integer.MAX_VALUE) {
+            throw new IOException("Rule snapshot would exceed 2 GB");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate((int) stringsOffset);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION)
+                .putLong(signature.count()).putLong(signature.maxId()).putLong(signature.idSum())
+                .putInt(count).putInt(tables.strings().size()).putInt(tables.conditionIds().size())
+                .putInt((int) stringsOffset).putInt((int) rulesOffset);
+        for (int i = 0; i < count; i++) {
+            header.putLong(ids[i]).putInt((int) rulesOffset + offsets[i]);
+        }
+
+        Path target = path.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                out.write(header.array());
+                stringBytes.writeTo(out);
+                tables.conditionBytes().writeTo(out);
+                ruleBytes.writeTo(out);
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return rulesOffset + ruleBytes.size();
+    }
+
+    // Strings and conditions collected while the rules are written
+    private record Tables(Map<String, Integer> stringIds, List<String> strings,
+                          Map<Condition, Integer> conditionIds, ByteArrayOutputStream conditionBytes) {
+
+        int stringId(String string) {
+            return stringIds.computeIfAbsent(string, key -> {
+                strings.add(key);
+                return strings.size() - 1;
+            });
+        }
+
+        int conditionId(Condition condition) {
+            Integer id = conditionIds.get(condition);
+            if (id == null) {
+                id = conditionIds.size();
+                conditionIds.put(condition, id);
+                writeVarint(conditionBytes, stringId(condition.getAttribute()));
+                conditionBytes.write(condition.getOperator().ordinal());
+                writeVarint(conditionBytes, stringId(condition.getLiteral()));
+            }
+            return id;
+        }
+    }
+
+    private static void writeNode(ByteArrayOutputStream out, ASTNode node, Tables tables) {
+        switch (node.getType()) {
+            case "AND":
+            case "OR":
+                out.write(node.getType().equals("AND") ? AND : OR);
+                writeVarint(out, node.getChildren().size());
+                for (ASTNode child : node.getChildren()) {
+                    writeNode(out, child, tables);
+                }
+                break;
+
+            case "operand":
+                Condition condition = node.getCondition();
+                if (condition == null) {
+                    // Kept as written so evaluating it reports the same error as before
+                    out.write(MALFORMED);
+                    writeVarint(out, tables.stringId(String.valueOf(node.getValue())));
+                } else {
+                    out.write(COMPARISON);
+                    writeVarint(out, tables.conditionId(condition));
+                }
+                break;
+
+            default:
+                throw new InvalidRuleFormatException("Unknown node type: " + node.getType());
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    // Seven bits per byte, low bits first, high bit set on every byte but the last
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public RuleSetSignature getSignature() {
+        return signature;
+    }
+
+    public int size() {
+        return ruleCount;
+    }
+
+    // Ids of the rules in the file, ascending, read from the index on access
+    public List<Long> getRuleIds() {
+        return new AbstractList<>() {
+            @Override
+            public Long get(int position) {
+                return idAt(position);
+            }
+
+            @Override
+            public int size() {
+                return ruleCount;
+            }
+        };
+    }
+
+    // The compiled rule, decoded on the first lookup; null if the file has no rule with this id
+    public CompiledRule getRule(long ruleId) {
+        int position = find(ruleId);
+        if (position < 0) {
+            return null;
+        }
+        CompiledRule rule = decoded.get(position);
+        if (rule == null) {
+            rule = decode(ruleId, buffer.getInt(HEADER_BYTES + position * INDEX_ENTRY_BYTES + 8));
+            // Threads decoding the same rule at once all end up with the copy stored first
+            if (!decoded.compareAndSet(position, null, rule)) {
+                rule = decoded.get(position);
+            }
+        }
+        return rule;
+    }
+
+    private long idAt(int position) {
+        return buffer.getLong(HEADER_BYTES + position * INDEX_ENTRY_BYTES);
+    }
+
+    // Binary search over the sorted index
+    private int find(long ruleId) {
+        int low = 0;
+        int high = ruleCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = idAt(mid);
+            if (id < ruleId) {
+                low = mid + 1;
+            } else if (id > ruleId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private CompiledRule decode(long ruleId, int offset) {
+        try {
+            Cursor cursor = new Cursor(offset);
+            String ruleString = cursor.string();
+            return new CompiledRule(ruleString, readNode(cursor), RuleParser::parse);
+        } catch (IndexOutOfBoundsException | IllegalStateException e) {
+            throw new InvalidRuleFormatException("Rule " + ruleId + " in snapshot " + path + " is unreadable: " + e.getMessage());
+        }
+    }
+
+    private ASTNode readNode(Cursor cursor) {
+        byte tag = cursor.next();
+        switch (tag) {
+            case AND:
+            case OR:
+                ASTNode node = new ASTNode(tag == AND ? "AND" : "OR");
+                int children = cursor.varint();
+                for (int i = 0; i < children; i++) {
+                    node.addChild(readNode(cursor));
+                }
+                return node;
+
+            case COMPARISON:
+                int conditionId = cursor.varint();
+                ASTNode leaf = new ASTNode("operand", conditionValues[conditionId]);
+                leaf.setCondition(conditions[conditionId]);
+                return leaf;
+
+            case MALFORMED:
+                return new ASTNode("operand", strings[cursor.varint()]);
+
+            default:
+                throw new IllegalStateException("unknown node tag " + tag);
+        }
+    }
+
+    // Read position in the mapping; one per decode, so decoding never moves the shared buffer's position
+    private final class Cursor {
+        private int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        byte next() {
+            return buffer.get(position++);
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = next();
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("malformed varint");
+        }
+
+        String string() {
+            byte[] bytes = new byte[varint()];
+            buffer.get(position, bytes);
+            position += bytes.length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
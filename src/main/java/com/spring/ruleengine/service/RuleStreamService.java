@@ -0,0 +1,108 @@
+package com.spring.ruleengine.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.SlotRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+@Service
+public class RuleStreamService {
+
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${rule.stream.flush-interval:256}")
+    private int flushInterval = 256;
+
+    // Evaluates newline-delimited JSON records one at a time and writes one result line per record.
+    // Only the current record is held in memory; blocking reads and writes give natural backpressure,
+    // since a slow client stops the loop from pulling more input.
+    public long evaluateStream(CompiledRule rule, EvaluationBackend backend,
+                               InputStream in, OutputStream out) throws IOException {
+        long index = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Records are separated by the newline written after each one, not Jackson's default space
+            generator.setRootValueSeparator(null);
+            // With the SLOT backend each record is bound from the JSON into one reused SlotRecord, with no map
+            SlotRecord slotRecord = backend == EvaluationBackend.SLOT && ruleService.hasSlotRule(rule)
+                    ? new SlotRecord(ruleService.getSchema()) : null;
+
+            while (true) {
+                Map<String, Object> record = null;
+                boolean isObject = false;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null) {
+                        break;
+                    }
+                    if (token == JsonToken.START_OBJECT) {
+                        isObject = true;
+                        if (slotRecord != null) {
+                            SlotRecordBinder.bind(parser, slotRecord);
+                        } else {
+                            record = objectMapper.readValue(parser, RECORD_TYPE);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                } catch (JsonProcessingException e) {
+                    // The stream cannot be resynchronised after malformed JSON, so report it and stop
+                    writeError(generator, index, "Malformed record: " + e.getOriginalMessage());
+                    break;
+                }
+
+                if (!isObject) {
+                    writeError(generator, index, "Record must be a JSON object.");
+                } else {
+                    try {
+                        boolean result = slotRecord != null
+                                ? ruleService.evaluateRule(rule, slotRecord)
+                                : ruleService.evaluateRule(rule, record, backend);
+                        generator.writeStartObject();
+                        generator.writeNumberField("index", index);
+                        generator.writeBooleanField("result", result);
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    } catch (RuntimeException e) {
+                        writeError(generator, index, e.getMessage());
+                    }
+                }
+
+                index++;
+                if (index % flushInterval == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return index;
+    }
+
+    private void writeError(JsonGenerator generator, long index, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
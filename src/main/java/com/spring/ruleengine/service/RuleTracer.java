@@ -0,0 +1,151 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.EvaluationTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Interprets rules recording each node's result and the value each leaf saw into a per-thread buffer;
+// a sampled percentage of evaluations is traced and logged.
+@Component
+public class RuleTracer {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleTracer.class);
+
+    private static final byte TRUE = 0;
+    private static final byte FALSE = 1;
+    private static final byte SKIPPED = 2;
+
+    // Grown on demand and reused for every trace on the thread. Virtual threads are not reused, so there
+    // the buffer is allocated per traced evaluation.
+    private static final ThreadLocal<TraceBuffer> buffers = ThreadLocal.withInitial(TraceBuffer::new);
+
+    private final double sampleRate;
+
+    public RuleTracer(@Value("${rule.trace.sample-rate:0}") double sampleRate) {
+        this.sampleRate = Math.max(0, Math.min(100, sampleRate));
+    }
+
+    // True for roughly sample-rate percent of evaluations
+    public boolean shouldSample() {
+        return sampleRate > 0 && (sampleRate >= 100 || ThreadLocalRandom.current().nextDouble(100) < sampleRate);
+    }
+
+    // Evaluates with tracing and logs the trace; the caller only sees the result
+    public boolean evaluateSampled(CompiledRule rule, Map<String, Object> data) {
+        EvaluationTrace trace = trace(rule.getRoot(), data);
+        log.info("Rule '{}' evaluated to {}: {}", rule.getRuleString(), trace.getResult(), trace);
+        return trace.getResult();
+    }
+
+    // Evaluates the tree and returns the result with its trace
+    public static EvaluationTrace trace(ASTNode root, Map<String, Object> data) {
+        TraceBuffer buffer = buffers.get();
+        try {
+            boolean result = evaluate(root, data, 0, buffer);
+            return buffer.toTrace(result);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private static boolean evaluate(ASTNode node, Map<String, Object> data, int depth, TraceBuffer buffer) {
+        // The slot is taken before the children so steps come out in rule order
+        int slot = buffer.open(node, depth);
+        boolean result;
+        List<ASTNode> children = node.getChildren();
+        switch (node.getType()) {
+            case "AND":
+            case "OR":
+                // An AND is decided by a false child and an OR by a true one; later children are skipped
+                boolean decisive = node.getType().equals("OR");
+                result = !decisive;
+                int i = 0;
+                while (i < children.size() && result != decisive) {
+                    result = evaluate(children.get(i++), data, depth + 1, buffer);
+                }
+                for (; i < children.size(); i++) {
+                    buffer.close(buffer.open(children.get(i), depth + 1), SKIPPED);
+                }
+                break;
+
+            case "operand":
+                Condition condition = node.getCondition();
+                if (condition == null) {
+                    throw new InvalidRuleFormatException("Invalid operand format: " + node.getValue());
+                }
+                buffer.setValue(slot, data.get(condition.getAttribute()));
+                result = condition.test(data);
+                break;
+
+            default:
+                throw new InvalidRuleFormatException("Unknown node type: " + node.getType());
+        }
+        buffer.close(slot, result ? TRUE : FALSE);
+        return result;
+    }
+
+    // Parallel arrays indexed by step; value references are cleared after each trace so request data is not retained
+    private static final class TraceBuffer {
+        private ASTNode[] nodes = new ASTNode[64];
+        private int[] depths = new int[64];
+        private byte[] outcomes = new byte[64];
+        private Object[] values = new Object[64];
+        private int size;
+
+        int open(ASTNode node, int depth) {
+            if (size == nodes.length) {
+                int capacity = size * 2;
+                nodes = Arrays.copyOf(nodes, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+                outcomes = Arrays.copyOf(outcomes, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            nodes[size] = node;
+            depths[size] = depth;
+            return size++;
+        }
+
+        void setValue(int slot, Object value) {
+            values[slot] = value;
+        }
+
+        void close(int slot, byte outcome) {
+            outcomes[slot] = outcome;
+        }
+
+        EvaluationTrace toTrace(boolean result) {
+            List<EvaluationTrace.Step> steps = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ASTNode node = nodes[i];
+                Condition condition = node.getCondition();
+                EvaluationTrace.Outcome outcome = outcomes[i] == TRUE ? EvaluationTrace.Outcome.TRUE
+                        : outcomes[i] == FALSE ? EvaluationTrace.Outcome.FALSE : EvaluationTrace.Outcome.SKIPPED;
+                boolean evaluatedLeaf = condition != null && outcome != EvaluationTrace.Outcome.SKIPPED;
+                steps.add(new EvaluationTrace.Step(depths[i],
+                        condition != null ? condition.toString() : node.getType(),
+                        outcome,
+                        evaluatedLeaf ? condition.getAttribute() : null,
+                        evaluatedLeaf ? values[i] : null));
+            }
+            return new EvaluationTrace(result, steps);
+        }
+
+        void clear() {
+            Arrays.fill(nodes, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.RuleEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Batches rule saves on one flusher thread; a future completes once its batch commits, and failed
+// batches are split and retried so only the failing saves report an error.
+@Component
+public class RuleWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleWriteBehind.class);
+
+    @Autowired
+    private RuleService ruleService;
+
+    private final boolean enabled;
+    private final int flushSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<PendingSave> queue;
+    private final Object enqueueLock = new Object(); // lets submitAll check capacity and enqueue as one step
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public RuleWriteBehind(@Value("${rule.write-behind.enabled:false}") boolean enabled,
+                           @Value("${rule.write-behind.flush-size:500}") int flushSize,
+                           @Value("${rule.write-behind.flush-interval-ms:20}") long flushIntervalMillis,
+                           @Value("${rule.write-behind.queue-capacity:100000}") int queueCapacity) {
+        this.enabled = enabled;
+        this.flushSize = flushSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flusher = new Thread(this::run, "rule-write-behind");
+        this.flusher.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    // Whether single saves from /save go through the queue; bulk saves always do
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Throws RejectedExecutionException when the queue is full
+    public CompletableFuture<RuleEntity> submit(String ruleString) {
+        PendingSave pending = new PendingSave(ruleString, new CompletableFuture<>());
+        synchronized (enqueueLock) {
+            if (!running || !queue.offer(pending)) {
+                throw new RejectedExecutionException("Rule write queue is full");
+            }
+        }
+        return pending.result();
+    }
+
+    // Queues the whole list or, when the queue cannot take all of it, none of it. Only the flusher takes from
+    // the queue, so capacity checked under the lock can only grow before the offers below.
+    public CompletableFuture<List<RuleEntity>> submitAll(List<String> ruleStrings) {
+        List<CompletableFuture<RuleEntity>> results = new ArrayList<>(ruleStrings.size());
+        synchronized (enqueueLock) {
+            if (!running || queue.remainingCapacity() < ruleStrings.size()) {
+                throw new RejectedExecutionException("Rule write queue is full");
+            }
+            for (String ruleString : ruleStrings) {
+                PendingSave pending = new PendingSave(ruleString, new CompletableFuture<>());
+                queue.add(pending);
+                results.add(pending.result());
+            }
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Stop accepting saves, then let the flusher drain what is already queued. It is not interrupted,
+        // since that could abort a batch in the middle of its JDBC calls.
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void run() {
+        List<PendingSave> batch = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSave first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingSave next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Only happens if the JVM is going down; stop accepting saves and drain without waiting
+                running = false;
+                queue.drainTo(batch, flushSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // A batch is one transaction, so a failed batch saved nothing and its halves can be retried on their own
+    private void flush(List<PendingSave> batch) {
+        List<String> ruleStrings = new ArrayList<>(batch.size());
+        for (PendingSave pending : batch) {
+            ruleStrings.add(pending.ruleString());
+        }
+        try {
+            List<RuleEntity> savedRules = ruleService.saveRules(ruleStrings);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(savedRules.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                log.debug("Retrying a failed batch of {} rules in halves: {}", batch.size(), e.getMessage());
+                int half = batch.size() / 2;
+                flush(batch.subList(0, half));
+                flush(batch.subList(half, batch.size()));
+                return;
+            }
+            log.warn("Failed to write rule '{}': {}", batch.get(0).ruleString(), e.getMessage());
+            batch.get(0).result().completeExceptionally(e);
+        }
+    }
+
+    private record PendingSave(String ruleString, CompletableFuture<RuleEntity> result) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.spring.ruleengine.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.spring.ruleengine.model.AttributeSchema;
+import com.spring.ruleengine.model.SlotRecord;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Fills SlotRecords from a parsed map or straight from JSON. Reading from the parser skips the intermediate
+// HashMap: numbers go into the primitive arrays without boxing, and attributes outside the schema are skipped
+// without being read. Values take the same Java types Jackson would give them in a map, so rules compare them
+// the same way either route.
+public final class SlotRecordBinder {
+
+    private SlotRecordBinder() {
+    }
+
+    public static SlotRecord bind(Map<String, Object> data, AttributeSchema schema) {
+        SlotRecord record = new SlotRecord(schema);
+        bind(data, record);
+        return record;
+    }
+
+    // Clears the record and binds the map's schema attributes into it; other keys are ignored
+    public static void bind(Map<String, Object> data, SlotRecord record) {
+        record.clear();
+        AttributeSchema schema = record.getSchema();
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            int slot = schema.getSlot(entry.getKey());
+            if (slot >= 0) {
+                record.setValue(slot, entry.getValue());
+            }
+        }
+    }
+
+    // Clears the record and binds the JSON object the parser is positioned on, leaving the parser on its
+    // END_OBJECT. Nested values are read through the parser's codec, like a map's values would be.
+    public static void bind(JsonParser parser, SlotRecord record) throws IOException {
+        record.clear();
+        AttributeSchema schema = record.getSchema();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int slot = schema.getSlot(parser.currentName());
+            JsonToken token = parser.nextToken();
+            if (slot < 0) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (token) {
+                case VALUE_NUMBER_INT:
+                    if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                        record.setValue(slot, parser.getBigIntegerValue());
+                    } else {
+                        record.setLong(slot, parser.getLongValue());
+                    }
+                    break;
+                case VALUE_NUMBER_FLOAT:
+                    record.setDouble(slot, parser.getDoubleValue());
+                    break;
+                case VALUE_STRING:
+                    record.setString(slot, parser.getText());
+                    break;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    record.setValue(slot, token == JsonToken.VALUE_TRUE);
+                    break;
+                case VALUE_NULL:
+                    record.setValue(slot, null);
+                    break;
+                default:
+                    record.setValue(slot, parser.readValueAs(Object.class));
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.service.AdaptiveRuleOptimizer;
+import com.spring.ruleengine.service.EvaluationBackend;
+import com.spring.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Skewed data where the last condition of a wide AND decides 95% of records: with adaptive reordering
+// the decisive condition moves to the front after warm-up
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdaptiveReorderBenchmark {
+
+    @Param({"false", "true"})
+    private boolean adaptive;
+
+    @Param({"INTERPRETER", "BYTECODE"})
+    private EvaluationBackend backend;
+
+    private RuleService ruleService;
+    private CompiledRule rule;
+    private Map<String, Object>[] records;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ruleService = new RuleService();
+        ReflectionTestUtils.setField(ruleService, "adaptiveOptimizer", new AdaptiveRuleOptimizer(adaptive, 64, 1000));
+        String ruleString = "department = 'Sales' AND location = 'Chennai' AND position != 'Intern'"
+                + " AND age > 20 AND salary > 1000 AND experience > 1 AND creditScore > 700";
+        rule = new CompiledRule(ruleString, ruleService.createRule(ruleString));
+
+        Random random = new Random(42);
+        records = new Map[1024];
+        for (int i = 0; i < records.length; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("department", "Sales");
+            record.put("location", "Chennai");
+            record.put("position", "Manager");
+            record.put("age", 30 + random.nextInt(30));
+            record.put("salary", 5000 + random.nextInt(50000));
+            record.put("experience", 2 + random.nextInt(20));
+            record.put("creditScore", random.nextInt(100) < 95 ? 300 + random.nextInt(400) : 701 + random.nextInt(100));
+            records[i] = record;
+        }
+    }
+
+    @Benchmark
+    public boolean evaluateRule() {
+        return ruleService.evaluateRule(rule, records[next++ & (records.length - 1)], backend);
+    }
+}
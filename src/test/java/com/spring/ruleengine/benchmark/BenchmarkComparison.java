@@ -0,0 +1,95 @@
+package com.spring.ruleengine.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Prints each benchmark's score next to the checked-in baseline and writes the run as a summary holding
+// only the benchmark, params, score and error, the format the baseline and recorded runs are kept in.
+// Usage: BenchmarkComparison <baseline.json> <jmh-result.json> <summary.json>
+public final class BenchmarkComparison {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <jmh-result.json> <summary.json>");
+            System.exit(2);
+        }
+        JsonNode current = summarize(MAPPER.readTree(new File(args[1])));
+        MAPPER.writeValue(new File(args[2]), current);
+
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.exists()) {
+            System.out.println("No baseline at " + baselineFile + "; copy " + args[2] + " there to create one.");
+            return;
+        }
+        JsonNode baseline = MAPPER.readTree(baselineFile);
+        if (!baseline.path("jdk").asText().equals(current.path("jdk").asText())) {
+            System.out.println("Baseline was recorded on JDK " + baseline.path("jdk").asText()
+                    + ", this run on JDK " + current.path("jdk").asText());
+        }
+
+        Map<String, JsonNode> before = byKey(baseline);
+        System.out.printf("%-76s %16s %16s %9s%n", "Benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : byKey(current).entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode then = before.get(entry.getKey());
+            double score = now.get("score").asDouble();
+            String unit = now.get("unit").asText();
+            if (then == null) {
+                System.out.printf("%-76s %16s %10.3f %-5s %9s%n", entry.getKey(), "-", score, unit, "new");
+                continue;
+            }
+            double baselineScore = then.get("score").asDouble();
+            System.out.printf("%-76s %10.3f %-5s %10.3f %-5s %+8.1f%%%n", entry.getKey(),
+                    baselineScore, then.get("unit").asText(), score, unit, (score - baselineScore) * 100 / baselineScore);
+        }
+    }
+
+    // Reduces JMH's JSON output to the JDK version plus each benchmark's params, score, error and unit
+    static JsonNode summarize(JsonNode results) {
+        ObjectNode summary = MAPPER.createObjectNode();
+        summary.put("jdk", results.size() > 0 ? results.get(0).path("jdkVersion").asText() : "");
+        ArrayNode benchmarks = summary.putArray("benchmarks");
+        for (JsonNode result : results) {
+            ObjectNode benchmark = benchmarks.addObject();
+            benchmark.put("benchmark", result.get("benchmark").asText().replace("com.spring.ruleengine.benchmark.", ""));
+            if (result.has("params")) {
+                benchmark.set("params", result.get("params"));
+            }
+            JsonNode metric = result.get("primaryMetric");
+            benchmark.put("score", metric.get("score").asDouble());
+            benchmark.put("error", metric.get("scoreError").asDouble());
+            benchmark.put("unit", metric.get("scoreUnit").asText());
+        }
+        return summary;
+    }
+
+    // Benchmarks are keyed by name plus parameters, e.g. "ParseBenchmark.createRule{shape=deep}"
+    private static Map<String, JsonNode> byKey(JsonNode summary) {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : summary.get("benchmarks")) {
+            String name = result.get("benchmark").asText();
+            JsonNode params = result.get("params");
+            if (params != null) {
+                StringBuilder key = new StringBuilder(name).append('{');
+                params.fields().forEachRemaining(p -> key.append(p.getKey()).append('=').append(p.getValue().asText()).append(','));
+                key.setCharAt(key.length() - 1, '}');
+                name = key.toString();
+            }
+            results.put(name, result);
+        }
+        return results;
+    }
+}
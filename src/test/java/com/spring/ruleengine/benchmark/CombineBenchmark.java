@@ -0,0 +1,51 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// RuleService.combineRules over 10 to 10,000 input rules
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombineBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int ruleCount;
+
+    private RuleService ruleService;
+    private List<String> rules;
+
+    @Setup
+    public void setUp() {
+        ruleService = new RuleService();
+        Random random = new Random(42);
+        rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(RuleFixtures.randomRule(random));
+        }
+    }
+
+    @Benchmark
+    public ASTNode combineRules() {
+        return ruleService.combineRules(rules);
+    }
+}
@@ -0,0 +1,62 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.service.RuleOptimizer;
+import com.spring.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Evaluating a 500-rule campaign combined as-is versus after RuleOptimizer; the campaign repeats
+// department checks and salary thresholds the way generated campaigns do
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombinedRuleBenchmark {
+
+    @Param({"false", "true"})
+    private boolean optimized;
+
+    private RuleService ruleService;
+    private ASTNode root;
+    private Map<String, Object>[] records;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ruleService = new RuleService();
+        Random random = new Random(42);
+        ASTNode combined = new ASTNode("OR");
+        for (int i = 0; i < 500; i++) {
+            combined.addChild(ruleService.createRule("(department = '" + RuleFixtures.DEPARTMENTS[random.nextInt(5)]
+                    + "' AND age > " + (20 + 5 * random.nextInt(8)) + ") OR salary > " + (150000 + 1000 * random.nextInt(20))));
+        }
+        root = optimized ? RuleOptimizer.optimize(combined) : combined;
+
+        records = new Map[1024];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = RuleFixtures.randomRecord(random);
+        }
+    }
+
+    @Benchmark
+    public boolean evaluateRule() {
+        return ruleService.evaluateRule(root, records[next++ & (records.length - 1)]);
+    }
+}
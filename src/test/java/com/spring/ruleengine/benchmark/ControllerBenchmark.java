@@ -0,0 +1,49 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.controller.RuleController;
+import com.spring.ruleengine.service.RuleCache;
+import com.spring.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The full RuleController.evaluateRule path: request validation, catalog and missing-field checks, evaluation
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerBenchmark {
+
+    private RuleController ruleController;
+    private Map<String, Object> request;
+
+    @Setup
+    public void setUp() {
+        RuleService ruleService = new RuleService();
+        ReflectionTestUtils.setField(ruleService, "ruleCache", new RuleCache(500));
+        ruleController = new RuleController();
+        ReflectionTestUtils.setField(ruleController, "ruleService", ruleService);
+        request = Map.of(
+                "ruleString", "age > 30 AND department = 'Sales' AND salary > 50000 AND experience >= 5",
+                "data", Map.of("age", 35, "department", "Sales", "salary", 60000, "experience", 7));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> evaluateRule() {
+        return ruleController.evaluateRule(request);
+    }
+}
@@ -0,0 +1,71 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.service.EvaluationBackend;
+import com.spring.ruleengine.service.RuleMetrics;
+import com.spring.ruleengine.service.RuleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// RuleService.evaluateRule on an already compiled rule whose leaves compare Integer, Double or String values
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluateBenchmark {
+
+    @Param({"integer", "double", "string"})
+    private String leafType;
+
+    @Param({"INTERPRETER", "BYTECODE", "FLAT"})
+    private EvaluationBackend backend;
+
+    private RuleService ruleService;
+    private CompiledRule rule;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setUp() {
+        ruleService = new RuleService();
+        // Metrics as configured by default, so the benchmark includes the sampled evaluation timing
+        ReflectionTestUtils.setField(ruleService, "ruleMetrics", new RuleMetrics(new SimpleMeterRegistry(), 1000, false, 64));
+        switch (leafType) {
+            case "integer":
+                rule = compile("age > 30 AND experience >= 5 AND salary < 90000");
+                data = Map.of("age", 35, "experience", 7, "salary", 50000);
+                break;
+            case "double":
+                rule = compile("creditScore > 650.5 AND income >= 1000.0 AND spend < 900.25");
+                data = Map.of("creditScore", 700.0, "income", 5000.5, "spend", 120.75);
+                break;
+            default:
+                rule = compile("department = 'Sales' AND location = 'Chennai' AND position != 'Intern'");
+                data = Map.of("department", "Sales", "location", "Chennai", "position", "Manager");
+        }
+    }
+
+    private CompiledRule compile(String ruleString) {
+        return new CompiledRule(ruleString, ruleService.createRule(ruleString));
+    }
+
+    @Benchmark
+    public boolean evaluateRule() {
+        return ruleService.evaluateRule(rule, data, backend);
+    }
+}
@@ -0,0 +1,44 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// RuleService.createRule on shallow, deeply nested and wide rules
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"shallow", "deep", "wide"})
+    private String shape;
+
+    private RuleService ruleService;
+    private String rule;
+
+    @Setup
+    public void setUp() {
+        ruleService = new RuleService();
+        rule = RuleFixtures.ruleOfShape(shape);
+    }
+
+    @Benchmark
+    public ASTNode createRule() {
+        return ruleService.createRule(rule);
+    }
+}
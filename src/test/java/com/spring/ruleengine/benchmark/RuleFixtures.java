@@ -0,0 +1,72 @@
+package com.spring.ruleengine.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Random rules and records shared by the benchmarks
+final class RuleFixtures {
+
+    static final String[] DEPARTMENTS = new String[50];
+
+    static {
+        for (int i = 0; i < DEPARTMENTS.length; i++) {
+            DEPARTMENTS[i] = "Dept" + i;
+        }
+    }
+
+    private RuleFixtures() {
+    }
+
+    // Mostly department-specific rules, with some range-only and a few unindexable ones
+    static String randomRule(Random random) {
+        switch (random.nextInt(50)) {
+            case 0:
+                return "department != '" + department(random) + "'";
+            case 1:
+            case 2:
+            case 3:
+                return "age > " + (20 + random.nextInt(50)) + " AND salary < " + random.nextInt(200000);
+            default:
+                return "department = '" + department(random) + "' AND age > " + (18 + random.nextInt(50))
+                        + " AND experience >= " + random.nextInt(20);
+        }
+    }
+
+    // "shallow" is a single comparison, "deep" nests 20 parenthesised ANDs and "wide" chains 50 conditions
+    static String ruleOfShape(String shape) {
+        switch (shape) {
+            case "shallow":
+                return "age > 30";
+            case "deep": {
+                StringBuilder rule = new StringBuilder();
+                for (int i = 0; i < 20; i++) {
+                    rule.append("(age > ").append(i).append(" AND ");
+                }
+                rule.append("salary > 1000");
+                rule.append(")".repeat(20));
+                return rule.toString();
+            }
+            default: {
+                StringBuilder rule = new StringBuilder("age > 0");
+                for (int i = 1; i < 50; i++) {
+                    rule.append(i % 2 == 0 ? " AND " : " OR ").append("salary > ").append(i * 1000);
+                }
+                return rule.toString();
+            }
+        }
+    }
+
+    static Map<String, Object> randomRecord(Random random) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("age", 18 + random.nextInt(60));
+        record.put("department", department(random));
+        record.put("salary", random.nextInt(200000));
+        record.put("experience", random.nextInt(30));
+        return record;
+    }
+
+    private static String department(Random random) {
+        return DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+    }
+}
@@ -0,0 +1,113 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.ConditionPool;
+import com.spring.ruleengine.model.FlatRule;
+import com.spring.ruleengine.service.RuleOptimizer;
+import com.spring.ruleengine.service.RuleParser;
+import com.spring.ruleengine.service.RuleService;
+
+import java.lang.ref.Reference;
+import java.util.Map;
+import java.util.Random;
+
+// Retained heap of 10k and 100k stored rules held as ASTNode trees versus FlatRules, and the time to
+// evaluate every rule against a few records. Heap is measured from used memory after repeated GCs,
+// so run it with nothing else in the JVM: ./mvnw -Pbenchmark test-compile exec:exec@rule-footprint
+public class RuleFootprint {
+
+    public static void main(String[] args) {
+        RuleService ruleService = new RuleService();
+        Random random = new Random(42);
+        Map<String, Object>[] records = records(random);
+
+        System.out.printf("%-8s %14s %14s %16s %16s%n", "rules", "AST bytes", "flat bytes", "AST scan ms", "flat scan ms");
+        for (int count : new int[]{10_000, 100_000}) {
+            measure(count, ruleService, random, records);
+        }
+    }
+
+    // One method call per size so nothing from the previous size is still reachable from a local
+    private static void measure(int count, RuleService ruleService, Random random, Map<String, Object>[] records) {
+        String[] ruleStrings = new String[count];
+        for (int i = 0; i < count; i++) {
+            ruleStrings[i] = RuleFixtures.randomRule(random);
+        }
+
+        long before = usedHeap();
+        ASTNode[] asts = new ASTNode[count];
+        for (int i = 0; i < count; i++) {
+            asts[i] = RuleOptimizer.optimize(RuleParser.parse(ruleStrings[i]));
+        }
+        long astBytes = usedHeap() - before;
+        long astNanos = scan(records, data -> {
+            int matches = 0;
+            for (ASTNode ast : asts) {
+                matches += ruleService.evaluateRule(ast, data) ? 1 : 0;
+            }
+            return matches;
+        });
+
+        // Converted from freshly parsed trees so no condition is shared with the ASTs above
+        before = usedHeap();
+        ConditionPool pool = new ConditionPool(Integer.MAX_VALUE);
+        FlatRule[] flats = new FlatRule[count];
+        for (int i = 0; i < count; i++) {
+            flats[i] = FlatRule.from(RuleOptimizer.optimize(RuleParser.parse(ruleStrings[i])), pool);
+        }
+        long flatBytes = usedHeap() - before;
+        long flatNanos = scan(records, data -> {
+            int matches = 0;
+            for (FlatRule flat : flats) {
+                matches += flat.test(data) ? 1 : 0;
+            }
+            return matches;
+        });
+
+        System.out.printf("%-8d %14d %14d %16.1f %16.1f%n", count, astBytes, flatBytes,
+                astNanos / 1e6, flatNanos / 1e6);
+        // Once compiled, locals die at their last use; keep the inputs alive through both measurements
+        Reference.reachabilityFence(ruleStrings);
+        Reference.reachabilityFence(asts);
+    }
+
+    // Best of several rounds over all records, after a warm-up round
+    private static long scan(Map<String, Object>[] records, Scan scan) {
+        long best = Long.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < 6; round++) {
+            long start = System.nanoTime();
+            for (Map<String, Object> data : records) {
+                sink += scan.run(data);
+            }
+            if (round > 0) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return best;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object>[] records(Random random) {
+        Map<String, Object>[] records = new Map[16];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = RuleFixtures.randomRecord(random);
+        }
+        return records;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private interface Scan {
+        int run(Map<String, Object> data);
+    }
+}
@@ -0,0 +1,153 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.RuleEngineApplication;
+import org.h2.api.Trigger;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Mixed save/evaluate load against the application on H2, once on platform request threads and once on
+// virtual threads with the bounded persistence pool. Every insert is slowed down by a trigger to stand in
+// for a slow MySQL write. Run with: ./mvnw -Pbenchmark test-compile exec:exec@load-test
+// Optional arguments: seconds per mode (default 15), concurrent clients (default 200), percentage of clients
+// that save rather than evaluate (default 20)
+public class RuleLoadTest {
+
+    static final long WRITE_DELAY_MILLIS = 20;
+
+    private static final String RULE = "age > 30 AND department = 'Sales' OR salary > 50000 AND experience >= 5";
+    private static final String EVALUATE_BODY = "{\"ruleString\":\"" + RULE + "\",\"data\":"
+            + "{\"age\":35,\"department\":\"Sales\",\"salary\":60000,\"experience\":3}}";
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int savePercent = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        System.out.printf("%d clients, %d%% saving, %d s per mode, %d ms per insert%n",
+                clients, savePercent, seconds, WRITE_DELAY_MILLIS);
+        System.out.printf("%-9s %-9s %10s %10s %10s %10s %8s%n", "mode", "request", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            run(virtualThreads, seconds, clients, savePercent);
+        }
+    }
+
+    private static void run(boolean virtualThreads, int seconds, int clients, int savePercent) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        SpringApplication application = new SpringApplication(RuleEngineApplication.class);
+        application.setAdditionalProfiles("test");
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load_" + mode + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=50",
+                "--rule.warmup.enabled=false",
+                "--logging.level.root=WARN")) {
+            new JdbcTemplate(context.getBean(DataSource.class)).execute(
+                    "CREATE TRIGGER slow_insert BEFORE INSERT ON rule_entity FOR EACH ROW CALL '"
+                            + SlowWrite.class.getName() + "'");
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/rules";
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            Recorder saves = new Recorder();
+            Recorder evaluations = new Recorder();
+
+            // A short warm-up, then the measured run
+            drive(client, base, clients, 2, savePercent, new Recorder(), new Recorder());
+            drive(client, base, clients, seconds, savePercent, saves, evaluations);
+
+            saves.print(mode, "save", seconds);
+            evaluations.print(mode, "evaluate", seconds);
+        }
+    }
+
+    private static void drive(HttpClient client, String base, int clients, int seconds, int savePercent,
+                              Recorder saves, Recorder evaluations) throws InterruptedException {
+        HttpRequest evaluate = HttpRequest.newBuilder(URI.create(base + "/evaluate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(EVALUATE_BODY)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        // Each client only saves or only evaluates, so slow saves cannot throttle evaluations on the client side
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        int savers = clients * savePercent / 100;
+        for (int c = 0; c < clients; c++) {
+            boolean save = c < savers;
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = save
+                            ? HttpRequest.newBuilder(URI.create(base + "/save"))
+                            .header("Content-Type", "text/plain")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "age > " + ThreadLocalRandom.current().nextInt(100))).build()
+                            : evaluate;
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    (save ? saves : evaluations).record(System.nanoTime() - start, ok);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    // Latencies of one request type
+    private static final class Recorder {
+        private final List<Long> latencies = new ArrayList<>();
+        private int errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (ok) {
+                latencies.add(nanos);
+            } else {
+                errors++;
+            }
+        }
+
+        synchronized void print(String mode, String request, int seconds) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-9s %-9s %10.0f %10.1f %10.1f %10.1f %8d%n", mode, request,
+                    (double) sorted.length / seconds, percentile(sorted, 50), percentile(sorted, 99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, errors);
+        }
+
+        private static double percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, (long) sorted.length * percentile / 100)] / 1e6;
+        }
+    }
+
+    // H2 trigger that makes every insert take WRITE_DELAY_MILLIS
+    public static class SlowWrite implements Trigger {
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+            try {
+                Thread.sleep(WRITE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
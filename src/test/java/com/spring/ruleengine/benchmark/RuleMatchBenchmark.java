@@ -0,0 +1,61 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.service.RuleNetwork;
+import com.spring.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Match time for one record against N stored rules, with the attribute index and with a full scan
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleMatchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int ruleCount;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private RuleNetwork network;
+    private Map<String, Object>[] records;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        RuleService ruleService = new RuleService();
+        Random random = new Random(42);
+        network = new RuleNetwork(indexed);
+        for (long id = 0; id < ruleCount; id++) {
+            network.addRule(id, ruleService.createRule(RuleFixtures.randomRule(random)));
+        }
+        records = new Map[1024];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = RuleFixtures.randomRecord(random);
+        }
+    }
+
+    @Benchmark
+    public List<Long> matchAll() {
+        return network.match(records[next++ & (records.length - 1)]);
+    }
+}
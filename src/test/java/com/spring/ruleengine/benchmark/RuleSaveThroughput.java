@@ -0,0 +1,82 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.RuleEngineApplication;
+import com.spring.ruleengine.model.RuleEntity;
+import com.spring.ruleengine.service.RuleService;
+import com.spring.ruleengine.service.RuleWriteBehind;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Rules saved per second on H2, one transaction per rule (the /save path) versus the write-behind queue,
+// with the same number of concurrent callers. Run with: ./mvnw -Pbenchmark test-compile exec:exec@save-throughput
+// Optional arguments: rules per run (default 20000), concurrent callers (default 8)
+public class RuleSaveThroughput {
+
+    public static void main(String[] args) throws Exception {
+        int ruleCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int callers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        SpringApplication application = new SpringApplication(RuleEngineApplication.class);
+        application.setAdditionalProfiles("test");
+        try (ConfigurableApplicationContext context = application.run(
+                "--spring.main.web-application-type=none",
+                "--rule.warmup.enabled=false",
+                "--logging.level.root=WARN")) {
+            RuleService ruleService = context.getBean(RuleService.class);
+            RuleWriteBehind writeBehind = context.getBean(RuleWriteBehind.class);
+            Random random = new Random(42);
+            List<String> rules = new ArrayList<>(ruleCount);
+            for (int i = 0; i < ruleCount; i++) {
+                rules.add(RuleFixtures.randomRule(random));
+            }
+
+            System.out.printf("%d rules, %d concurrent callers%n", ruleCount, callers);
+            System.out.printf("%-14s %12s%n", "path", "rules/s");
+            for (int round = 0; round < 2; round++) {
+                // The first round warms up both paths
+                double perRequest = run(rules, callers, rule -> CompletableFuture.completedFuture(ruleService.saveRule(rule)));
+                double queued = run(rules, callers, writeBehind::submit);
+                if (round == 1) {
+                    System.out.printf("%-14s %12.0f%n", "per-request", perRequest);
+                    System.out.printf("%-14s %12.0f%n", "write-behind", queued);
+                }
+            }
+        }
+    }
+
+    private static double run(List<String> rules, int callers, Saver saver) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int c = 0; c < callers; c++) {
+            int from = c;
+            workers.add(pool.submit(() -> {
+                List<CompletableFuture<RuleEntity>> saved = new ArrayList<>();
+                for (int i = from; i < rules.size(); i += callers) {
+                    saved.add(saver.save(rules.get(i)));
+                }
+                saved.forEach(CompletableFuture::join);
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        return rules.size() / seconds;
+    }
+
+    private interface Saver {
+        CompletableFuture<RuleEntity> save(String ruleString);
+    }
+}
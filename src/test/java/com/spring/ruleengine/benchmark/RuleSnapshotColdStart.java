@@ -0,0 +1,93 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.repository.RuleSetSignature;
+import com.spring.ruleengine.service.RuleAstCodec;
+import com.spring.ruleengine.service.RuleNetwork;
+import com.spring.ruleengine.service.RuleOptimizer;
+import com.spring.ruleengine.service.RuleParser;
+import com.spring.ruleengine.service.RuleSet;
+import com.spring.ruleengine.service.RuleSnapshotFile;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+// Time from no rules loaded to the first stored rule ready for evaluation, and to a built match network, for
+// 100k rules held as rule strings (parsed), as stored JSON ASTs (decoded, what a reload does after fetching
+// the rows, the fetch itself not included) and in a mapped snapshot file. Each case starts after a GC so that
+// pauses from the setup do not land in it. The snapshot runs first, on code the setup has not warmed up;
+// the parser has been warmed by the setup: ./mvnw -Pbenchmark test-compile exec:exec@snapshot-cold-start
+public class RuleSnapshotColdStart {
+
+    private static final int RULES = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(42);
+        String[] ruleStrings = new String[RULES];
+        String[] astJson = new String[RULES];
+        for (int i = 0; i < RULES; i++) {
+            ruleStrings[i] = RuleFixtures.randomRule(random);
+            astJson[i] = RuleAstCodec.encode(RuleOptimizer.optimize(RuleParser.parse(ruleStrings[i])));
+        }
+        Path path = Files.createTempFile("rules", ".snapshot");
+        long bytes = write(path, ruleStrings);
+        long jsonBytes = 0;
+        for (String json : astJson) {
+            jsonBytes += json.length();
+        }
+        Map<String, Object> record = RuleFixtures.randomRecord(random);
+        // In the application logging is set up long before rules load; here it would land in the first case
+        LoggerFactory.getLogger(RuleSnapshotColdStart.class);
+
+        System.out.printf("%-10s %14s %16s %14s %10s%n", "source", "bytes", "first rule ms", "network ms", "matches");
+        try {
+            measureSnapshot(path, bytes, record);
+            measure("parse", ruleStrings, 0, record, ruleString -> RuleOptimizer.optimize(RuleParser.parse(ruleString)));
+            measure("json", astJson, jsonBytes, record, RuleAstCodec::decode);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static long write(Path path, String[] ruleStrings) throws IOException {
+        Map<Long, CompiledRule> rules = new HashMap<>();
+        for (int i = 0; i < RULES; i++) {
+            rules.put(i + 1L, new CompiledRule(ruleStrings[i], RuleOptimizer.optimize(RuleParser.parse(ruleStrings[i]))));
+        }
+        return RuleSnapshotFile.write(path, new RuleSetSignature((long) RULES, (long) RULES, 0L), rules);
+    }
+
+    private static void measureSnapshot(Path path, long bytes, Map<String, Object> record) throws IOException {
+        System.gc();
+        long start = System.nanoTime();
+        RuleSet mapped = new RuleSet(1, RuleSnapshotFile.open(path));
+        mapped.getRule(RULES / 2L);
+        long firstRule = System.nanoTime() - start;
+        RuleNetwork network = mapped.getNetwork();
+        long built = System.nanoTime() - start;
+        System.out.printf("%-10s %14d %16.3f %14.1f %10d%n", "snapshot", bytes, firstRule / 1e6, built / 1e6,
+                network.match(record).size());
+    }
+
+    private static void measure(String source, String[] stored, long bytes, Map<String, Object> record,
+                                Function<String, ASTNode> load) {
+        System.gc();
+        long start = System.nanoTime();
+        load.apply(stored[RULES / 2 - 1]);
+        long firstRule = System.nanoTime() - start;
+        RuleNetwork network = new RuleNetwork();
+        for (int i = 0; i < RULES; i++) {
+            network.addRule(i + 1L, load.apply(stored[i]));
+        }
+        long built = System.nanoTime() - start;
+        System.out.printf("%-10s %14d %16.3f %14.1f %10d%n", source, bytes, firstRule / 1e6, built / 1e6,
+                network.match(record).size());
+    }
+}
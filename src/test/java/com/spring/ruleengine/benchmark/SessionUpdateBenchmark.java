@@ -0,0 +1,71 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.service.RuleNetwork;
+import com.spring.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One attribute of a record changes against 10k stored rules: re-matching the whole record through the
+// indexed network versus updating an incremental session. Salary is referenced by a few range rules,
+// experience by most of them.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionUpdateBenchmark {
+
+    @Param({"salary", "experience"})
+    private String attribute;
+
+    @Param({"rematch", "session"})
+    private String mode;
+
+    private RuleNetwork network;
+    private RuleNetwork.Session session;
+    private Map<String, Object> record;
+    private int[] values;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RuleService ruleService = new RuleService();
+        Random random = new Random(42);
+        network = new RuleNetwork();
+        for (long id = 0; id < 10_000; id++) {
+            network.addRule(id, ruleService.createRule(RuleFixtures.randomRule(random)));
+        }
+        record = RuleFixtures.randomRecord(random);
+        session = network.openSession(record);
+        values = new int[1024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "salary".equals(attribute) ? random.nextInt(200000) : random.nextInt(30);
+        }
+    }
+
+    @Benchmark
+    public List<Long> update() {
+        Integer value = values[next++ & (values.length - 1)];
+        if ("session".equals(mode)) {
+            return network.update(session, Map.of(attribute, value));
+        }
+        record.put(attribute, value);
+        return network.match(record);
+    }
+}
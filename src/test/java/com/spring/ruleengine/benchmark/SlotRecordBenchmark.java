@@ -0,0 +1,80 @@
+package com.spring.ruleengine.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.SlotRecord;
+import com.spring.ruleengine.service.EvaluationBackend;
+import com.spring.ruleengine.service.RuleService;
+import com.spring.ruleengine.service.SlotRecordBinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// One JSON record to a result, as /evaluate/stream handles each line: read into a map and evaluated with the
+// FLAT backend, or bound straight into a reused SlotRecord and evaluated from slots. Also the slot evaluation
+// alone on a record that is already bound.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlotRecordBenchmark {
+
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RuleService ruleService;
+    private CompiledRule rule;
+    private String json;
+    private SlotRecord record;
+
+    @Setup
+    public void setUp() throws IOException {
+        ruleService = new RuleService();
+        String ruleString = "(age > 30 AND department = 'Sales') OR (salary > 50000.5 AND experience >= 5)";
+        rule = new CompiledRule(ruleString, ruleService.createRule(ruleString));
+        json = "{\"age\": 28, \"department\": \"HR\", \"salary\": 60000.75, \"experience\": 7, "
+                + "\"location\": \"Chennai\", \"position\": \"Manager\", \"creditScore\": 710}";
+        record = new SlotRecord(ruleService.getSchema());
+        bindJson();
+    }
+
+    @Benchmark
+    public boolean jsonToMapFlat() throws IOException {
+        Map<String, Object> data = objectMapper.readValue(json, RECORD_TYPE);
+        return ruleService.evaluateRule(rule, data, EvaluationBackend.FLAT);
+    }
+
+    @Benchmark
+    public boolean jsonToSlotRecord() throws IOException {
+        bindJson();
+        return ruleService.evaluateRule(rule, record);
+    }
+
+    @Benchmark
+    public boolean boundSlotRecord() {
+        return ruleService.evaluateRule(rule, record);
+    }
+
+    private void bindJson() throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            SlotRecordBinder.bind(parser, record);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.spring.ruleengine.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.service.EvaluationBackend;
+import com.spring.ruleengine.service.RuleService;
+import com.spring.ruleengine.service.RuleTracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Interpreter evaluation with the sampled tracer off, on for 1% of calls, and a trace read out on every call.
+// The tracer's logger is set to WARN so the sampled case measures recording but not the console write.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraceBenchmark {
+
+    @Param({"off", "sampled", "always"})
+    private String tracing;
+
+    private RuleService ruleService;
+    private CompiledRule rule;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(RuleTracer.class)).setLevel(Level.WARN);
+        ruleService = new RuleService();
+        ReflectionTestUtils.setField(ruleService, "ruleTracer", new RuleTracer("sampled".equals(tracing) ? 1 : 0));
+        String ruleString = "(age > 30 AND department = 'Sales') OR (salary > 50000 AND experience >= 5)";
+        rule = new CompiledRule(ruleString, ruleService.createRule(ruleString));
+        data = Map.of("age", 35, "department", "HR", "salary", 60000, "experience", 7);
+    }
+
+    @Benchmark
+    public Object evaluate() {
+        if ("always".equals(tracing)) {
+            return ruleService.traceRule(rule, data);
+        }
+        return ruleService.evaluateRule(rule, data, EvaluationBackend.INTERPRETER);
+    }
+}
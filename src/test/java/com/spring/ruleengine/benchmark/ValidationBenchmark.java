@@ -0,0 +1,84 @@
+package com.spring.ruleengine.benchmark;
+
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.service.RuleCache;
+import com.spring.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The checks /evaluate runs before evaluating: "legacy" is the former string scan, catalog loop, per-call
+// regex and separate parse; "compiled" looks everything up against the cached compiled rule
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    @Param({"legacy", "compiled"})
+    private String validation;
+
+    private RuleService ruleService;
+    private String ruleString;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setUp() {
+        ruleService = new RuleService();
+        ReflectionTestUtils.setField(ruleService, "ruleCache", new RuleCache(500));
+        ruleString = "age > 30 AND department = 'Sales' AND salary > 50000 AND experience >= 5";
+        data = Map.of("age", 35, "department", "Sales", "salary", 60000, "experience", 7);
+    }
+
+    @Benchmark
+    public Object validate() {
+        if ("legacy".equals(validation)) {
+            ruleService.validateRule(ruleString);
+            for (String key : data.keySet()) {
+                ruleService.validateAttribute(key);
+            }
+            List<String> missing = legacyFindMissingFields(ruleString, data);
+            return missing.isEmpty() ? ruleService.getCompiledRule(ruleString) : missing;
+        }
+        CompiledRule rule = ruleService.getCompiledRule(ruleString);
+        for (String key : data.keySet()) {
+            if (!ruleService.isKnownAttribute(key)) {
+                return key;
+            }
+        }
+        List<String> missing = ruleService.findMissingAttributes(rule, data);
+        return missing.isEmpty() ? rule : missing;
+    }
+
+    // RuleController.findMissingFields as it was before validation moved onto the compiled rule
+    private static List<String> legacyFindMissingFields(String ruleString, Map<String, Object> data) {
+        String regex = "([a-zA-Z_][a-zA-Z0-9_]*)\\s*(>|<|>=|<=|=|!=)\\s*(['\"]?)([\\w\\s]+)(['\"]?)";
+        Matcher matcher = Pattern.compile(regex).matcher(ruleString);
+        HashSet<String> missingFields = new HashSet<>();
+        while (matcher.find()) {
+            String field = matcher.group(1);
+            if (!data.containsKey(field)) {
+                missingFields.add(field);
+            }
+        }
+        return missingFields.stream().toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.spring.ruleengine.controller;
+
+import com.spring.ruleengine.model.RuleEntity;
+import com.spring.ruleengine.service.RuleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RuleControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Test
+    void storedAndStringRulesGiveTheSameAnswers() throws Exception {
+        // Optimizing folds the contradiction away, but records are still checked against the rule as written
+        String ruleString = "age > 30 AND age < 20";
+        RuleEntity saved = ruleService.saveRule(ruleString);
+
+        for (String data : new String[]{"{\"salary\": 1}", "{\"age\": 25}"}) {
+            String body = evaluate("/api/rules/evaluate", "{\"ruleString\": \"" + ruleString + "\", \"data\": " + data + "}")
+                    .andReturn().getResponse().getContentAsString();
+            evaluate("/api/rules/" + saved.getId() + "/evaluate", "{\"data\": " + data + "}")
+                    .andExpect(content().string(body));
+        }
+        evaluate("/api/rules/" + saved.getId() + "/evaluate", "{\"data\": {\"salary\": 1}}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Rule references non-existing field(s): age"));
+    }
+
+    @Test
+    void evaluateChecksTheCatalogBeforeMissingFields() throws Exception {
+        String rule = "salary > 10 AND (age > 30 OR experience > 2) AND department = 'Sales'";
+
+        evaluate("/api/rules/evaluate", "{\"ruleString\": \"" + rule + "\", \"data\": {\"age\": 40}}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Rule references non-existing field(s): salary, experience, department"));
+        evaluate("/api/rules/evaluate", "{\"ruleString\": \"" + rule + "\", \"data\": {\"age\": 40, \"shoeSize\": 9}}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid attribute in rule: shoeSize"));
+        evaluate("/api/rules/evaluate", "{\"ruleString\": \"" + rule + "\", \"data\": "
+                + "{\"age\": 40, \"salary\": 20, \"experience\": 1, \"department\": \"Sales\"}}")
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+    }
+
+    @Test
+    void createCombineAndEvaluateAcceptTheSameRules() throws Exception {
+        evaluate("/api/rules/create", "{\"ruleString\": \"department = 'Sales'\"}")
+                .andExpect(status().isOk());
+        evaluate("/api/rules/combine", "{\"rules\": [\"department = 'Sales'\", \"age > 30\"]}")
+                .andExpect(status().isOk());
+        evaluate("/api/rules/evaluate", "{\"ruleString\": \"department = 'Sales'\", \"data\": {\"department\": \"Sales\"}}")
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+
+        evaluate("/api/rules/create", "{\"ruleString\": \"age >\"}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Invalid rule format")));
+        evaluate("/api/rules/evaluate", "{\"ruleString\": \"age >\", \"data\": {\"age\": 1}}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Invalid rule format")));
+        evaluate("/api/rules/combine", "{\"rules\": [\"age >\", \"age > 30\"]}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Invalid rule format")));
+    }
+
+    private ResultActions evaluate(String path, String json) throws Exception {
+        return mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(json));
+    }
+}
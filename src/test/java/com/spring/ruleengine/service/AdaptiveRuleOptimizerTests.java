@@ -0,0 +1,92 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.MissingAttributeException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.RuleProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveRuleOptimizerTests {
+
+    private final RuleService ruleService = new RuleService();
+    private final AdaptiveRuleOptimizer optimizer = new AdaptiveRuleOptimizer(true, 1, 50);
+
+    @Test
+    void sortsAndChildrenByCostPerFalseAndOrChildrenByCostPerTrue() {
+        ASTNode and = ruleService.createRule("age > 1 AND salary > 2 AND experience > 3");
+        RuleProfile profile = new RuleProfile(and);
+        // cost / P(false): 100 / 0.1 = 1000, 10 / 0.5 = 20, 50 / 1.0 = 50
+        record(profile, and.getChildren().get(0), 9, 1, 100);
+        record(profile, and.getChildren().get(1), 5, 5, 10);
+        record(profile, and.getChildren().get(2), 0, 10, 50);
+        assertEquals(List.of("salary > 2", "experience > 3", "age > 1"), leaves(optimizer.reorder(and, profile)));
+
+        ASTNode or = ruleService.createRule("age > 1 OR salary > 2 OR experience > 3");
+        profile = new RuleProfile(or);
+        // cost / P(true): 100 / 0.9 = 111, 10 / 0.5 = 20, never true sorts last
+        record(profile, or.getChildren().get(0), 9, 1, 100);
+        record(profile, or.getChildren().get(1), 5, 5, 10);
+        record(profile, or.getChildren().get(2), 0, 10, 50);
+        assertEquals(List.of("salary > 2", "age > 1", "experience > 3"), leaves(optimizer.reorder(or, profile)));
+
+        // Nothing moves, so the tree is returned as it is
+        assertSame(or.getChildren().get(0), optimizer.reorder(or.getChildren().get(0), profile));
+    }
+
+    @Test
+    void swapsTheRootAfterEnoughSamplesWithoutChangingResults() {
+        CompiledRule rule = new CompiledRule("rule", ruleService.createRule("age > 0 AND salary > 0 AND age > 100"));
+        ASTNode parsed = rule.getRoot();
+        Map<String, Object> data = Map.of("age", 5, "salary", 10);
+
+        for (int i = 0; i < 50; i++) {
+            assertFalse(optimizer.evaluateSampled(rule, data));
+        }
+
+        assertNotSame(parsed, rule.getRoot());
+        assertSame(parsed, rule.getParsedRoot());
+        assertEquals("age > 100", rule.getRoot().getChildren().get(0).getValue());
+        assertFalse(ruleService.evaluateRule(rule, data, EvaluationBackend.INTERPRETER));
+        assertTrue(ruleService.evaluateRule(rule, Map.of("age", 101, "salary", 10), EvaluationBackend.BYTECODE));
+    }
+
+    @Test
+    void reorderedRulesReportErrorsInTheWrittenOrder() {
+        CompiledRule rule = new CompiledRule("rule", ruleService.createRule("creditScore > 1 AND age > 99"));
+        ASTNode root = rule.getRoot();
+        ASTNode reordered = new ASTNode(root.getType(), root.getValue());
+        reordered.addChild(root.getChildren().get(1));
+        reordered.addChild(root.getChildren().get(0));
+        rule.setRoot(reordered);
+
+        // age > 99 first would return false; the written order reaches the missing attribute first
+        for (EvaluationBackend backend : EvaluationBackend.values()) {
+            assertThrows(MissingAttributeException.class,
+                    () -> ruleService.evaluateRule(rule, Map.of("age", 5), backend));
+        }
+        assertFalse(ruleService.evaluateRule(rule, Map.of("age", 5, "creditScore", 0), EvaluationBackend.BYTECODE));
+    }
+
+    private static void record(RuleProfile profile, ASTNode node, int passes, int fails, long nanos) {
+        for (int i = 0; i < passes; i++) {
+            profile.get(node).record(true, nanos);
+        }
+        for (int i = 0; i < fails; i++) {
+            profile.get(node).record(false, nanos);
+        }
+    }
+
+    private static List<String> leaves(ASTNode node) {
+        return node.getChildren().stream().map(ASTNode::getValue).toList();
+    }
+}
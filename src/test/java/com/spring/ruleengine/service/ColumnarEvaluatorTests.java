@@ -0,0 +1,95 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidDataFormatException;
+import com.spring.ruleengine.exception.MissingAttributeException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.Column;
+import com.spring.ruleengine.model.ColumnBatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnarEvaluatorTests {
+
+    private static final int ROWS = 1000;
+    private static final String[] OPERATORS = {">", "<", "=", "!=", ">=", "<="};
+    private static final String[] DEPARTMENTS = {"Sales", "Marketing", "Engineering"};
+    private static final String[] LEVELS = {"1", "3", "5", "9"};
+
+    private final RuleService ruleService = new RuleService();
+
+    @Test
+    void matchesInterpreterForEveryOperatorAndColumnKind() {
+        Random random = new Random(42);
+        int[] age = new int[ROWS];
+        long[] salary = new long[ROWS];
+        double[] score = new double[ROWS];
+        int[] department = new int[ROWS];
+        int[] level = new int[ROWS];
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            age[i] = random.nextInt(80);
+            salary[i] = random.nextInt(100000) * 1000L;
+            score[i] = random.nextInt(10) == 0 ? 50 : random.nextDouble() * 100;
+            department[i] = random.nextInt(DEPARTMENTS.length);
+            level[i] = random.nextInt(LEVELS.length);
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("age", age[i]);
+            data.put("salary", salary[i]);
+            data.put("score", score[i]);
+            data.put("department", DEPARTMENTS[department[i]]);
+            data.put("level", LEVELS[level[i]]);
+            records.add(data);
+        }
+        ColumnBatch batch = new ColumnBatch(ROWS)
+                .addColumn("age", Column.ofInts(age))
+                .addColumn("salary", Column.ofLongs(salary))
+                .addColumn("score", Column.ofDoubles(score))
+                .addColumn("department", Column.ofDictionary(DEPARTMENTS, department))
+                .addColumn("level", Column.ofDictionary(LEVELS, level));
+
+        List<String> rules = new ArrayList<>();
+        for (String op : OPERATORS) {
+            rules.add("age " + op + " 40");
+            rules.add("age " + op + " 40.5");
+            rules.add("salary " + op + " 50000000");
+            rules.add("salary " + op + " 50000000.5");
+            rules.add("score " + op + " 50");
+            rules.add("score " + op + " 49.5");
+            rules.add("department " + op + " 'Sales'");
+            rules.add("level " + op + " 5");
+            rules.add("level " + op + " 4.5");
+        }
+        rules.add("(age > 30 AND department = 'Sales') OR (score <= 20 AND salary != 0)");
+        rules.add("age < 5 AND level >= 3");
+
+        for (String text : rules) {
+            ASTNode rule = ruleService.createRule(text);
+            long[] bits = ColumnarEvaluator.evaluate(rule, batch);
+            for (int i = 0; i < ROWS; i++) {
+                boolean actual = (bits[i >>> 6] & (1L << i)) != 0;
+                assertEquals(ruleService.evaluateRule(rule, records.get(i)), actual, text + " at row " + i);
+            }
+        }
+    }
+
+    @Test
+    void reportsMissingColumnsAndStringLiteralsOnNumericColumns() {
+        ColumnBatch batch = new ColumnBatch(3).addColumn("age", Column.ofInts(new int[]{10, 20, 30}));
+
+        assertThrows(MissingAttributeException.class,
+                () -> ColumnarEvaluator.evaluate(ruleService.createRule("salary > 10 AND age > 5"), batch));
+        assertThrows(InvalidDataFormatException.class,
+                () -> ColumnarEvaluator.evaluate(ruleService.createRule("age = 'Sales'"), batch));
+        assertThrows(InvalidDataFormatException.class,
+                () -> ruleService.evaluateRule(ruleService.createRule("age = 'Sales'"), Map.of("age", 10)));
+    }
+}
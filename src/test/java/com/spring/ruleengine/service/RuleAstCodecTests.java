@@ -0,0 +1,49 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.MissingAttributeException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.CompiledRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleAstCodecTests {
+
+    private final RuleService ruleService = new RuleService();
+
+    @Test
+    void decodedAstKeepsConditionsAndConstants() {
+        ASTNode root = RuleOptimizer.optimize(RuleParser.parse(
+                "(age > 30 AND department = 'Sales Team') OR (salary > 50000 AND salary < 100)"));
+        String json = RuleAstCodec.encode(root);
+        ASTNode decoded = RuleAstCodec.decode(json);
+
+        assertEquals(json, RuleAstCodec.encode(decoded));
+        assertNotNull(decoded.getChildren().get(0).getCondition());
+        assertTrue(ruleService.evaluateRule(decoded, Map.of("age", 35, "department", "Sales Team", "salary", 1)));
+        assertFalse(ruleService.evaluateRule(decoded, Map.of("age", 35, "department", "Sales", "salary", 1)));
+    }
+
+    @Test
+    void storedRulesAnswerLikeTheRuleAsWritten() {
+        // Optimizing folds the contradiction away, but records are still checked against the rule as written
+        String ruleString = "age > 30 AND age < 20";
+        ASTNode optimized = RuleAstCodec.decode(RuleAstCodec.encode(RuleOptimizer.optimize(RuleParser.parse(ruleString))));
+        CompiledRule stored = new CompiledRule(ruleString, optimized, RuleParser::parse);
+        CompiledRule written = new CompiledRule(ruleString, RuleParser.parse(ruleString));
+
+        assertEquals(List.copyOf(written.getAttributes()), List.copyOf(stored.getAttributes()));
+        for (CompiledRule rule : List.of(stored, written)) {
+            assertFalse(ruleService.evaluateRule(rule, Map.of("age", 25), EvaluationBackend.INTERPRETER));
+            assertThrows(MissingAttributeException.class,
+                    () -> ruleService.evaluateRule(rule, Map.of("salary", 1), EvaluationBackend.BYTECODE));
+        }
+    }
+}
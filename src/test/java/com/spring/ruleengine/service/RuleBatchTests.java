@@ -0,0 +1,67 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.config.RuleExecutors;
+import com.spring.ruleengine.exception.InvalidDataFormatException;
+import com.spring.ruleengine.model.CompiledRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RuleBatchTests {
+
+    private final RuleService ruleService = new RuleService();
+    private final RuleExecutors ruleExecutors = new RuleExecutors(4, false, 1, 1);
+
+    RuleBatchTests() {
+        ReflectionTestUtils.setField(ruleService, "ruleExecutors", ruleExecutors);
+        ReflectionTestUtils.setField(ruleService, "batchChunkSize", 16);
+    }
+
+    @AfterEach
+    void shutdown() {
+        ruleExecutors.shutdown();
+    }
+
+    @Test
+    void parallelChunksKeepRecordOrder() {
+        CompiledRule rule = new CompiledRule("age > 30", ruleService.createRule("age > 30"));
+        List<Map<String, Object>> records = new ArrayList<>();
+        boolean[] expected = new boolean[100];
+        for (int i = 0; i < 100; i++) {
+            int age = (i * 37) % 61;
+            records.add(Map.of("age", age));
+            expected[i] = age > 30;
+        }
+
+        for (EvaluationBackend backend : EvaluationBackend.values()) {
+            assertArrayEquals(expected, ruleService.evaluateBatch(rule, records, backend, true));
+            assertArrayEquals(expected, ruleService.evaluateBatch(rule, records, backend, false));
+        }
+    }
+
+    @Test
+    void reportsTheFailingRecordIndex() {
+        CompiledRule rule = new CompiledRule("age > 30", ruleService.createRule("age > 30"));
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> record = new HashMap<>();
+            if (i != 57) {
+                record.put("age", i);
+            }
+            records.add(record);
+        }
+
+        InvalidDataFormatException error = assertThrows(InvalidDataFormatException.class,
+                () -> ruleService.evaluateBatch(rule, records, EvaluationBackend.INTERPRETER, true));
+        assertEquals("Record 57: Required field missing: age", error.getMessage());
+    }
+}
@@ -0,0 +1,52 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.CompiledRule;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RuleCacheTests {
+
+    private final RuleService ruleService = new RuleService();
+    private final Function<String, CompiledRule> compiler = key -> new CompiledRule(key, ruleService.createRule(key));
+
+    @Test
+    void evictsLeastRecentlyUsedRuleAndCountsRequests() {
+        RuleCache cache = new RuleCache(2);
+        CompiledRule age = cache.get("age > 1", compiler);
+        CompiledRule salary = cache.get("salary > 2", compiler);
+        // Touching age leaves salary as the least recently used entry
+        assertSame(age, cache.get("age > 1", compiler));
+        cache.get("experience > 3", compiler);
+
+        assertSame(age, cache.get("age > 1", compiler));
+        assertNotSame(salary, cache.get("salary > 2", compiler));
+        assertEquals(new RuleCache.Stats(2, 4, 2, 2, 2), cache.getStats());
+    }
+
+    @Test
+    void zeroMaxSizeCachesNothing() {
+        RuleCache cache = new RuleCache(0);
+
+        assertNotSame(cache.get("age > 1", compiler), cache.get("age > 1", compiler));
+        assertEquals(new RuleCache.Stats(0, 2, 0, 0, 0), cache.getStats());
+    }
+
+    @Test
+    void equivalentRuleStringsShareOneEntry() {
+        RuleService service = new RuleService();
+        ReflectionTestUtils.setField(service, "ruleCache", new RuleCache(10));
+
+        CompiledRule rule = service.getCompiledRule("age > 30 AND department = 'Sales'");
+        assertSame(rule, service.getCompiledRule("  age  >  30\tAND\n department = 'Sales' "));
+        assertNotSame(rule, service.getCompiledRule("age > 30 AND department = 'Sales  '"));
+        assertEquals("age > 30 AND department = 'Sales  '",
+                RuleService.normalizeRule(" age >  30 AND  department = 'Sales  '"));
+        assertEquals(new RuleCache.Stats(1, 2, 0, 2, 10), service.getCacheStats());
+    }
+}
@@ -0,0 +1,146 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.RuleEngineApplication;
+import com.spring.ruleengine.model.RuleEntity;
+import com.spring.ruleengine.repository.RuleSetVersionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Partitioned instances in this JVM sharing one in-memory H2 schema, and a standalone one for contrast
+class RuleClusterTests {
+
+    private static final String SECRET = "cluster-test-secret";
+
+    @Test
+    void partitionedNodesShareWritesAndGatherMatches() throws IOException {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int portA = freePort();
+        int portB = freePort();
+        String nodes = "http://localhost:" + portA + ",http://localhost:" + portB;
+
+        try (ConfigurableApplicationContext a = start(portA, nodes);
+             ConfigurableApplicationContext b = start(portB, nodes)) {
+            RuleService serviceA = a.getBean(RuleService.class);
+            RuleService serviceB = b.getBean(RuleService.class);
+
+            List<String> rules = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                rules.add("age > " + i);
+            }
+            List<Long> ids = serviceA.saveRules(rules).stream().map(RuleEntity::getId).sorted().toList();
+            Map<String, Object> record = Map.of("age", 100);
+
+            // B learns about A's write through the version row, and either node answers for the whole set
+            await(() -> serviceA.matchAllRules(record).equals(ids) && serviceB.matchAllRules(record).equals(ids));
+
+            Set<Long> ownedByA = Set.copyOf(serviceA.getRuleSet().getRuleIds());
+            Set<Long> ownedByB = Set.copyOf(serviceB.getRuleSet().getRuleIds());
+            assertFalse(ownedByA.isEmpty());
+            assertFalse(ownedByB.isEmpty());
+            Set<Long> union = new HashSet<>(ownedByA);
+            union.addAll(ownedByB);
+            assertEquals(Set.copyOf(ids), union);
+            assertEquals(ids.size(), ownedByA.size() + ownedByB.size());
+
+            // Only the other nodes, which send the shared secret, may ask for a partition's matches
+            assertEquals(403, postLocalMatch(portA, null));
+            assertEquals(403, postLocalMatch(portA, "guess"));
+            assertEquals(200, postLocalMatch(portA, SECRET));
+
+            serviceB.deleteRule(ids.get(0));
+            await(() -> !serviceA.matchAllRules(record).contains(ids.get(0)));
+            assertEquals(ids.subList(1, ids.size()), serviceA.matchAllRules(record));
+        }
+    }
+
+    @Test
+    void standaloneInstanceHasNoVersionRow() throws IOException {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        SpringApplication application = new SpringApplication(RuleEngineApplication.class);
+        application.setAdditionalProfiles("test");
+        int port = freePort();
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:standalone_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=WARN")) {
+            assertNull(context.getBeanProvider(RuleSetVersionRepository.class).getIfAvailable());
+            Integer tables = context.getBean(JdbcTemplate.class).queryForObject(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = 'RULE_SET_VERSION'",
+                    Integer.class);
+            assertEquals(0, tables);
+
+            context.getBean(RuleService.class).createRule("age > 1");
+            assertEquals(403, postLocalMatch(port, SECRET));
+        }
+    }
+
+    private static int postLocalMatch(int port, String secret) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/rules/match/local"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"data\":{\"age\":100}}"));
+        if (secret != null) {
+            request.header(RuleCluster.SECRET_HEADER, secret);
+        }
+        try {
+            return HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(int port, String nodes) {
+        SpringApplication application = new SpringApplication(RuleEngineApplication.class);
+        application.setAdditionalProfiles("test");
+        return application.run(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:cluster_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--rule.cluster.enabled=true",
+                "--rule.cluster.partitioned=true",
+                "--rule.cluster.self=http://localhost:" + port,
+                "--rule.cluster.nodes=" + nodes,
+                "--rule.cluster.secret=" + SECRET,
+                "--rule.reload.interval-ms=50",
+                "--logging.level.root=WARN");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Cluster did not converge in time");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.MissingAttributeException;
+import com.spring.ruleengine.model.ASTNode;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.Condition;
+import com.spring.ruleengine.model.ConditionPool;
+import com.spring.ruleengine.model.FlatRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleCompilerTests {
+
+    private final RuleService ruleService = new RuleService();
+
+    @Test
+    void compiledBackendsMatchInterpreterOnRandomRecords() {
+        List<ASTNode> rules = List.of(
+                ruleService.createRule("age > 30 AND department = 'Sales'"),
+                ruleService.createRule("salary >= 50000.5 OR experience < 3"),
+                and(or(operand("age > 30"), operand("department = 'Marketing'")),
+                        or(operand("salary < 60000"), operand("experience != 5")), operand("age <= 60")),
+                or(and(operand("age >= 18"), operand("age < 25")), operand("department != 'Sales'")),
+                new ASTNode("AND"),
+                new ASTNode("OR"));
+
+        Random random = new Random(42);
+        String[] departments = {"Sales", "Marketing", "Engineering"};
+        for (ASTNode rule : rules) {
+            CompiledRule compiled = new CompiledRule("test", rule);
+            Predicate<Map<String, Object>> predicate = RuleCompiler.compile(rule);
+            for (int i = 0; i < 1000; i++) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("age", random.nextInt(80));
+                data.put("department", departments[random.nextInt(departments.length)]);
+                data.put("salary", random.nextBoolean() ? random.nextInt(100000) : random.nextDouble() * 100000);
+                data.put("experience", String.valueOf(random.nextInt(10)));
+
+                boolean expected = ruleService.evaluateRule(rule, data);
+                assertEquals(expected, predicate.test(data));
+                assertEquals(expected, ruleService.evaluateRule(compiled, data, EvaluationBackend.BYTECODE));
+                assertEquals(expected, ruleService.evaluateRule(compiled, data, EvaluationBackend.FLAT));
+                assertEquals(expected, ruleService.evaluateRule(compiled, data, EvaluationBackend.SLOT));
+            }
+        }
+    }
+
+    @Test
+    void flatRulesShareInternedConditions() {
+        ConditionPool pool = new ConditionPool(10);
+        FlatRule first = FlatRule.from(ruleService.createRule("(age > 30 OR salary > 10) AND age > 30"), pool);
+        FlatRule second = FlatRule.from(ruleService.createRule("age > 30 AND department = 'Sales'"), pool);
+
+        assertEquals(3, first.getLeafCount());
+        assertEquals(3, pool.size());
+        assertTrue(second.test(Map.of("age", 31, "department", "Sales")));
+        assertThrows(MissingAttributeException.class, () -> first.test(Map.of("salary", 40)));
+    }
+
+    @Test
+    void compactedRulesEvaluateFromTheFlatForm() {
+        String ruleString = "age > 30 AND department = 'Sales'";
+        CompiledRule rule = new CompiledRule(ruleString, RuleParser.parse(ruleString));
+        rule.setFlat(FlatRule.from(rule.getRoot(), new ConditionPool(10)));
+        rule.compact(RuleParser::parse);
+
+        // The interpreter runs the flat form; bytecode compilation gets a re-parsed tree
+        assertTrue(rule.isCompact());
+        assertTrue(ruleService.evaluateRule(rule, Map.of("age", 31, "department", "Sales"), EvaluationBackend.INTERPRETER));
+        assertFalse(ruleService.evaluateRule(rule, Map.of("age", 31, "department", "HR"), EvaluationBackend.BYTECODE));
+        assertThrows(MissingAttributeException.class,
+                () -> ruleService.evaluateRule(rule, Map.of("age", 31), EvaluationBackend.INTERPRETER));
+    }
+
+    @Test
+    void bytecodeReportsMissingAttributesLikeInterpreter() {
+        Predicate<Map<String, Object>> predicate = RuleCompiler.compile(ruleService.createRule("age > 30 AND salary > 100"));
+
+        assertThrows(MissingAttributeException.class, () -> predicate.test(Map.of("age", 40)));
+        assertFalse(predicate.test(Map.of("age", 20)));
+    }
+
+    @Test
+    void fallsBackToInterpreterWhenRuleCannotBeCompiled() {
+        ASTNode malformed = and(operand("age > 30"), new ASTNode("operand", "age>30"));
+        CompiledRule compiled = new CompiledRule("malformed", malformed);
+
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile(malformed));
+        assertFalse(ruleService.evaluateRule(compiled, Map.of("age", 20), EvaluationBackend.BYTECODE));
+        assertTrue(compiled.isBytecodeUnavailable());
+        assertNotNull(compiled.getRoot());
+    }
+
+    private static ASTNode operand(String value) {
+        ASTNode node = new ASTNode("operand", value);
+        node.setCondition(Condition.parse(value));
+        return node;
+    }
+
+    private static ASTNode and(ASTNode... children) {
+        return junction("AND", children);
+    }
+
+    private static ASTNode or(ASTNode... children) {
+        return junction("OR", children);
+    }
+
+    private static ASTNode junction(String type, ASTNode... children) {
+        ASTNode node = new ASTNode(type);
+        for (ASTNode child : children) {
+            node.addChild(child);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,75 @@
+package com.spring.ruleengine.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RuleMetrics metrics = new RuleMetrics(registry, 2, false, 1);
+
+    @Test
+    void registersEachBackendTimerOnFirstUse() {
+        metrics.recordEvaluation("age > 30", EvaluationBackend.BYTECODE, System.nanoTime());
+
+        String rule = RuleMetrics.ruleHash("age > 30");
+        assertEquals(16, rule.length());
+        assertEquals(1, timer(rule, "bytecode").count());
+        assertNull(registry.find("rule.evaluate").tag("backend", "interpreter").timer());
+
+        metrics.recordEvaluation("age > 30", EvaluationBackend.INTERPRETER, System.nanoTime());
+        metrics.recordEvaluation("age > 30", EvaluationBackend.BYTECODE, System.nanoTime());
+        assertEquals(1, timer(rule, "interpreter").count());
+        assertEquals(2, timer(rule, "bytecode").count());
+        assertEquals(2, registry.find("rule.evaluate").timers().size());
+    }
+
+    @Test
+    void foldsRulesBeyondTheCapIntoOther() {
+        metrics.recordEvaluation("age > 1", EvaluationBackend.BYTECODE, System.nanoTime());
+        metrics.recordEvaluation("age > 2", EvaluationBackend.BYTECODE, System.nanoTime());
+        metrics.recordEvaluation("age > 3", EvaluationBackend.BYTECODE, System.nanoTime());
+        metrics.recordEvaluationError("age > 4");
+        metrics.recordEvaluationError("age > 1");
+
+        assertEquals(1, timer("other", "bytecode").count());
+        assertEquals(1, registry.get("rule.evaluate.errors").tag("rule", "other").counter().count());
+        assertEquals(1, registry.get("rule.evaluate.errors").tag("rule", RuleMetrics.ruleHash("age > 1")).counter().count());
+        assertNull(registry.find("rule.evaluate").tag("rule", RuleMetrics.ruleHash("age > 3")).timer());
+        assertNotEquals(RuleMetrics.ruleHash("age > 1"), RuleMetrics.ruleHash("age > 2"));
+    }
+
+    @Test
+    void countsValidationFailuresByReason() {
+        metrics.recordValidationFailure("missing_field");
+        metrics.recordValidationFailure("missing_field");
+        metrics.recordValidationFailure("unknown_attribute");
+
+        assertEquals(2, registry.get("rule.validation.failures").tag("reason", "missing_field").counter().count());
+        assertEquals(1, registry.get("rule.validation.failures").tag("reason", "unknown_attribute").counter().count());
+    }
+
+    @Test
+    void samplesEvaluationTiming() {
+        assertTrue(metrics.shouldTime());
+        assertFalse(RuleMetrics.noop().shouldTime());
+
+        RuleMetrics sampled = new RuleMetrics(registry, 10, false, 64);
+        int timed = 0;
+        for (int i = 0; i < 64_000; i++) {
+            timed += sampled.shouldTime() ? 1 : 0;
+        }
+        assertTrue(timed > 500 && timed < 1500, "timed " + timed);
+    }
+
+    private Timer timer(String rule, String backend) {
+        return registry.get("rule.evaluate").tag("rule", rule).tag("backend", backend).timer();
+    }
+}
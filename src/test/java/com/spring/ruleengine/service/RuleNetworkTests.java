@@ -0,0 +1,120 @@
+package com.spring.ruleengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RuleNetworkTests {
+
+    private final RuleService ruleService = new RuleService();
+
+    @Test
+    void sharesIdenticalConditionsAcrossRules() {
+        RuleNetwork network = new RuleNetwork();
+        network.addRule(1L, ruleService.createRule("age > 30 AND department = 'Sales'"));
+        network.addRule(2L, ruleService.createRule("age > 30 AND salary > 50000"));
+        network.addRule(3L, ruleService.createRule("department = 'Sales'"));
+
+        // age > 30, department = 'Sales', salary > 50000 and the two AND nodes
+        assertEquals(5, network.getNodeCount());
+        assertEquals(List.of(1L, 3L), network.match(Map.of("age", 35, "department", "Sales")));
+        assertEquals(List.of(2L), network.match(Map.of("age", 35, "department", "HR", "salary", 60000)));
+    }
+
+    @Test
+    void removingRulesReleasesUnsharedNodes() {
+        RuleNetwork network = new RuleNetwork();
+        network.addRule(1L, ruleService.createRule("age > 30 AND department = 'Sales'"));
+        network.addRule(2L, ruleService.createRule("age > 30"));
+
+        network.removeRule(1L);
+
+        assertEquals(1, network.getNodeCount());
+        assertEquals(List.of(2L), network.match(Map.of("age", 35, "department", "Sales")));
+
+        network.addRule(1L, ruleService.createRule("age > 30 AND department = 'Sales'"));
+        assertEquals(List.of(1L, 2L), network.match(Map.of("age", 35, "department", "Sales")));
+    }
+
+    @Test
+    void indexReturnsSameMatchesAsFullScan() {
+        RuleNetwork indexed = new RuleNetwork(true);
+        RuleNetwork scanned = new RuleNetwork(false);
+        Random random = new Random(7);
+        String[] departments = {"Sales", "Marketing", "Engineering"};
+        for (long id = 1; id <= 300; id++) {
+            String rule = switch (random.nextInt(4)) {
+                case 0 -> "age > " + random.nextInt(60) + " AND department = '" + departments[random.nextInt(3)] + "'";
+                case 1 -> "salary <= " + random.nextInt(100000) + " OR age >= " + random.nextInt(60);
+                case 2 -> "department != '" + departments[random.nextInt(3)] + "'";
+                default -> "salary = " + random.nextInt(5) * 1000 + " OR experience < " + random.nextInt(10);
+            };
+            indexed.addRule(id, ruleService.createRule(rule));
+            scanned.addRule(id, ruleService.createRule(rule));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> data = Map.of("age", random.nextInt(70),
+                    "department", departments[random.nextInt(3)],
+                    "salary", random.nextInt(5) * 1000,
+                    "experience", random.nextInt(12));
+            assertEquals(scanned.match(data), indexed.match(data));
+        }
+    }
+
+    @Test
+    void sessionUpdatesAgreeWithFullMatch() {
+        RuleNetwork network = new RuleNetwork();
+        Random random = new Random(11);
+        String[] departments = {"Sales", "Marketing", "Engineering"};
+        for (long id = 1; id <= 200; id++) {
+            network.addRule(id, RuleOptimizer.optimize(ruleService.createRule(
+                    "(age > " + random.nextInt(60) + " AND department = '" + departments[random.nextInt(3)] + "')"
+                            + " OR (salary <= " + random.nextInt(100000) + " AND experience >= " + random.nextInt(10) + ")")));
+        }
+
+        Map<String, Object> record = new HashMap<>(Map.of("age", 40, "department", "Sales", "salary", 50000, "experience", 5));
+        RuleNetwork.Session session = network.openSession(record);
+        assertEquals(network.match(record), session.getMatches());
+
+        String[] attributes = {"age", "department", "salary", "experience"};
+        for (int i = 0; i < 300; i++) {
+            if (i % 100 == 50) {
+                // Rules change on a copy, as on a reload, leaving the published network as it was. The session
+                // carries its results over; a removed rule that matched and an added rule that matches are
+                // reported as flipped.
+                RuleNetwork previous = network;
+                List<Long> previousMatches = previous.match(record);
+                network = previous.copy();
+                network.removeRule(7L + i);
+                network.addRule(1000L + i, ruleService.createRule("age > 50 OR department = 'Marketing'"));
+                assertEquals(previousMatches, previous.match(record));
+            }
+            String attribute = attributes[random.nextInt(attributes.length)];
+            Object value = switch (attribute) {
+                case "department" -> departments[random.nextInt(3)];
+                case "salary" -> random.nextInt(100000);
+                default -> random.nextInt(i % 10 == 0 ? 10 : 70);
+            };
+            Set<Long> before = new HashSet<>(session.getMatches());
+            record.put(attribute, value);
+            Set<Long> after = new HashSet<>(network.match(record));
+            Set<Long> expectedFlips = new HashSet<>(before);
+            expectedFlips.addAll(after);
+            before.retainAll(after);
+            expectedFlips.removeAll(before);
+
+            List<Long> flipped = network.update(session, Map.of(attribute, value));
+
+            assertEquals(expectedFlips, new HashSet<>(flipped));
+            assertEquals(network.match(record), session.getMatches());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.ASTNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleOptimizerTests {
+
+    private final RuleService ruleService = new RuleService();
+
+    @Test
+    void mergesRangesAndFlattensNestedJunctions() {
+        ASTNode root = RuleOptimizer.optimize(RuleParser.parse(
+                "(age > 30 AND (age > 40 AND salary < 5000)) AND salary <= 9000"));
+
+        assertEquals("AND", root.getType());
+        assertEquals(2, root.getChildren().size());
+        assertEquals("age > 40", root.getChildren().get(0).getValue());
+        assertEquals("salary < 5000", root.getChildren().get(1).getValue());
+    }
+
+    @Test
+    void sharesIdenticalSubtreesAndFoldsContradictions() {
+        ASTNode combined = ruleService.combineRules(List.of(
+                "(age > 30 AND department = 'Sales') OR salary > 100",
+                "salary > 100 OR (department = 'Sales' AND age > 30)",
+                "age > 30 AND department = 'Sales'"));
+
+        // All three collapse into the first rule: OR(AND(age, department), salary)
+        assertEquals("OR", combined.getType());
+        assertEquals(5, RuleOptimizer.countNodes(combined));
+
+        ASTNode contradiction = ruleService.combineRules(List.of("age > 30 AND age < 20", "department = 'Sales'"));
+        assertTrue(RuleOptimizer.isConstant(contradiction));
+        assertFalse(ruleService.evaluateRule(contradiction, Map.of("age", 35, "department", "Sales")));
+    }
+
+    @Test
+    void optimizedTreeEvaluatesLikeTheOriginal() {
+        String rule = "(age > 30 OR age >= 50 OR age = 60) AND (department = 'Sales' OR department = 'Sales')"
+                + " AND (salary > 10 OR experience > 2 AND salary > 10)";
+        ASTNode original = RuleParser.parse(rule);
+        ASTNode optimized = RuleOptimizer.optimize(original);
+
+        for (int age = 20; age < 70; age += 5) {
+            for (int salary = 0; salary < 30; salary += 10) {
+                Map<String, Object> data = Map.of("age", age, "department", "Sales", "salary", salary, "experience", 3);
+                assertEquals(ruleService.evaluateRule(original, data), ruleService.evaluateRule(optimized, data));
+            }
+        }
+        assertEquals(3, optimized.getChildren().size());
+        assertEquals("age > 30", optimized.getChildren().get(0).getValue());
+    }
+}
@@ -0,0 +1,83 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.exception.InvalidRuleFormatException;
+import com.spring.ruleengine.model.ASTNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleParserTests {
+
+    private final RuleService ruleService = new RuleService();
+
+    @Test
+    void andBindsTighterThanOrAndChainsAreFlattened() {
+        ASTNode root = RuleParser.parse("age > 30 AND department = 'Sales' OR age < 25 AND salary > 100 AND experience > 2");
+
+        assertEquals("OR", root.getType());
+        assertEquals(2, root.getChildren().size());
+        assertEquals(2, root.getChildren().get(0).getChildren().size());
+        assertEquals(3, root.getChildren().get(1).getChildren().size());
+    }
+
+    @Test
+    void parsesNestedParenthesesAndAttributesWithCapitals() {
+        ASTNode root = RuleParser.parse(
+                "((age > 30 AND department = 'Sales Team') OR (age < 25 AND department = 'Marketing'))"
+                        + " AND (salary > 50000 OR loanAmount >= 1000.5)");
+
+        assertTrue(ruleService.evaluateRule(root,
+                Map.of("age", 35, "department", "Sales Team", "salary", 10, "loanAmount", 2000.0)));
+        assertFalse(ruleService.evaluateRule(root,
+                Map.of("age", 35, "department", "Sales Team", "salary", 10, "loanAmount", 20.0)));
+        assertEquals("loanAmount >= 1000.5", root.getChildren().get(1).getChildren().get(1).getValue());
+    }
+
+    @Test
+    void parsesDeepRulesWithoutRecursion() {
+        int depth = 100_000;
+        String rule = "(".repeat(depth) + "age > 30" + ")".repeat(depth);
+
+        assertEquals("age > 30", RuleParser.parse(rule).getValue());
+    }
+
+    @Test
+    void flattensDeeplyNestedChainsInLinearTime() {
+        int depth = 100_000;
+        StringBuilder left = new StringBuilder("(".repeat(depth)).append("age > 0");
+        StringBuilder right = new StringBuilder();
+        for (int i = 1; i <= depth; i++) {
+            left.append(" AND age > ").append(i).append(')');
+            right.append("age > ").append(i - 1).append(" OR (");
+        }
+        right.append("age > ").append(depth).append(")".repeat(depth));
+
+        ASTNode leftNested = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> RuleParser.parse(left.toString()));
+        assertEquals("AND", leftNested.getType());
+        assertEquals(depth + 1, leftNested.getChildren().size());
+        assertEquals("age > 0", leftNested.getChildren().get(0).getValue());
+        assertEquals("age > " + depth, leftNested.getChildren().get(depth).getValue());
+
+        ASTNode rightNested = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> RuleParser.parse(right.toString()));
+        assertEquals("OR", rightNested.getType());
+        assertEquals(depth + 1, rightNested.getChildren().size());
+        assertEquals("age > 1", rightNested.getChildren().get(1).getValue());
+    }
+
+    @Test
+    void reportsErrorPositions() {
+        assertEquals("Expected a comparison operator after 'age' at position 4.",
+                assertThrows(InvalidRuleFormatException.class, () -> RuleParser.parse("age 30")).getMessage());
+        assertEquals("Unclosed '(' at position 0.",
+                assertThrows(InvalidRuleFormatException.class, () -> RuleParser.parse("(age > 30")).getMessage());
+        assertEquals("Expected a condition at end of rule at position 12.",
+                assertThrows(InvalidRuleFormatException.class, () -> RuleParser.parse("age > 30 AND")).getMessage());
+    }
+}
@@ -0,0 +1,73 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.RuleEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RuleSetReloadTests {
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Test
+    void reloadPublishesNewSnapshotAndLeavesOldOneIntact() {
+        RuleSet before = ruleService.reloadRules();
+        Map<String, Object> record = Map.of("age", 35, "department", "Reload");
+
+        RuleEntity saved = ruleService.saveRule("department = 'Reload' AND age > 30");
+        RuleSet after = ruleService.reloadRules();
+
+        assertTrue(after.getVersion() > before.getVersion());
+        assertNull(before.getRule(saved.getId()));
+        assertFalse(before.getNetwork().match(record).contains(saved.getId()));
+        assertNotNull(after.getRule(saved.getId()));
+        assertTrue(after.getNetwork().match(record).contains(saved.getId()));
+
+        // Stored rules keep only their flat form; the interpreter runs it and a trace re-parses the tree
+        CompiledRule compiled = after.getRule(saved.getId());
+        assertTrue(compiled.isCompact());
+        assertTrue(ruleService.evaluateRule(compiled, record, EvaluationBackend.INTERPRETER));
+        assertTrue(ruleService.evaluateRule(compiled, record, EvaluationBackend.BYTECODE));
+        assertTrue(ruleService.traceRule(compiled, record).getResult());
+
+        // Unchanged rules keep their compiled form across versions, and an unchanged table is not reloaded
+        for (Long ruleId : before.getRuleIds()) {
+            assertSame(before.getRule(ruleId), after.getRule(ruleId));
+        }
+        assertSame(after, ruleService.reloadRules());
+    }
+
+    @Test
+    void reloadAppliesSavesAndDeletesToOpenSessions() {
+        ruleService.reloadRules();
+        Map<String, Object> record = Map.of("age", 41, "department", "Sessions");
+        RuleNetwork.Session session = ruleService.openSession(record);
+
+        RuleEntity saved = ruleService.saveRule("department = 'Sessions' AND age > 40");
+        RuleSet after = ruleService.reloadRules();
+        assertEquals(List.of(saved.getId()), ruleService.updateSession(session, Map.of()));
+        assertEquals(after.getNetwork().match(record), session.getMatches());
+
+        ruleService.deleteRule(saved.getId());
+        RuleSet afterDelete = ruleService.reloadRules();
+        assertNull(afterDelete.getRule(saved.getId()));
+        assertNotNull(after.getRule(saved.getId()));
+        assertEquals(List.of(saved.getId()), ruleService.updateSession(session, Map.of()));
+        assertEquals(afterDelete.getNetwork().match(record), session.getMatches());
+    }
+}
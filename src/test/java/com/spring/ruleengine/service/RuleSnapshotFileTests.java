@@ -0,0 +1,71 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.repository.RuleSetSignature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RuleSnapshotFileTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mappedRulesEvaluateAndMatchLikeTheOriginals() throws IOException {
+        Map<Long, CompiledRule> rules = new HashMap<>();
+        rules.put(7L, compile("(age > 30 AND department = 'Sales Team') OR (salary > 50000 AND experience >= 5)"));
+        rules.put(3L, compile("age > 30 AND salary > 1.5 AND department != 'HR'"));
+        rules.put(12L, compile("department = 'Sales Team' OR age < 18"));
+        RuleSetSignature signature = new RuleSetSignature(3L, 12L, 22L);
+        Path path = directory.resolve("rules.snapshot");
+
+        long bytes = RuleSnapshotFile.write(path, signature, rules);
+        RuleSnapshotFile file = RuleSnapshotFile.open(path);
+
+        assertEquals(Files.size(path), bytes);
+        assertEquals(signature, file.getSignature());
+        assertEquals(List.of(3L, 7L, 12L), file.getRuleIds());
+        assertNull(file.getRule(5L));
+        assertSame(file.getRule(7L), file.getRule(7L));
+
+        RuleService ruleService = new RuleService();
+        RuleNetwork network = new RuleNetwork();
+        rules.forEach((ruleId, rule) -> network.addRule(ruleId, rule.getRoot()));
+        RuleSet mapped = new RuleSet(1, file);
+        List<Map<String, Object>> records = List.of(
+                Map.of("age", 35, "department", "Sales Team", "salary", 1, "experience", 0),
+                Map.of("age", 35, "department", "HR", "salary", 60000, "experience", 7),
+                Map.of("age", 12, "department", "Sales", "salary", 2, "experience", 1));
+        for (Map<String, Object> record : records) {
+            for (Map.Entry<Long, CompiledRule> rule : rules.entrySet()) {
+                CompiledRule decoded = file.getRule(rule.getKey());
+                assertEquals(rule.getValue().getRuleString(), decoded.getRuleString());
+                assertEquals(ruleService.evaluateRule(rule.getValue().getRoot(), record),
+                        ruleService.evaluateRule(decoded.getRoot(), record));
+            }
+            assertEquals(network.match(record), mapped.getNetwork().match(record));
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path path = Files.writeString(directory.resolve("rules.snapshot"), "not a snapshot");
+        assertThrows(IOException.class, () -> RuleSnapshotFile.open(path));
+    }
+
+    private static CompiledRule compile(String ruleString) {
+        return new CompiledRule(ruleString, RuleOptimizer.optimize(RuleParser.parse(ruleString)));
+    }
+}
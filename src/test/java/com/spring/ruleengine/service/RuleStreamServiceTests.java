@@ -0,0 +1,94 @@
+package com.spring.ruleengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.ruleengine.model.CompiledRule;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleStreamServiceTests {
+
+    private final RuleService ruleService = new RuleService();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RuleStreamService streamService = new RuleStreamService();
+
+    RuleStreamServiceTests() {
+        ReflectionTestUtils.setField(streamService, "ruleService", ruleService);
+        ReflectionTestUtils.setField(streamService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(streamService, "flushInterval", 2);
+    }
+
+    @Test
+    void writesOneResultLinePerRecord() throws IOException {
+        String input = "{\"age\": 35, \"salary\": 200}\n"
+                + "[1, 2]\n"
+                + "{\"age\": 20, \"salary\": 200}\n"
+                + "{\"salary\": 200}\n"
+                + "{\"age\": \"old\", \"salary\": 200}\n"
+                + "{\"age\": 40, \"salary\": 300}\n";
+
+        List<Map<String, Object>> lines = stream(compile("age > 30 AND salary > 100"), EvaluationBackend.INTERPRETER, input, 6);
+
+        assertEquals(Map.of("index", 0, "result", true), lines.get(0));
+        assertEquals(Map.of("index", 1, "error", "Record must be a JSON object."), lines.get(1));
+        assertEquals(Map.of("index", 2, "result", false), lines.get(2));
+        // Evaluation errors are reported for their record and the stream carries on
+        assertEquals(Map.of("index", 3, "error", "Required field missing: age"), lines.get(3));
+        assertEquals(4, lines.get(4).get("index"));
+        assertTrue(lines.get(4).containsKey("error"));
+        assertEquals(Map.of("index", 5, "result", true), lines.get(5));
+    }
+
+    @Test
+    void stopsAtMalformedJson() throws IOException {
+        String input = "{\"age\": 35}\n{\"age\": \n{\"age\": 40}\n";
+
+        List<Map<String, Object>> lines = stream(compile("age > 30"), EvaluationBackend.INTERPRETER, input, 1);
+
+        assertEquals(2, lines.size());
+        assertEquals(Map.of("index", 0, "result", true), lines.get(0));
+        assertEquals(1, lines.get(1).get("index"));
+        assertTrue(((String) lines.get(1).get("error")).startsWith("Malformed record: "));
+    }
+
+    @Test
+    void slotBindingMatchesMapBinding() throws IOException {
+        CompiledRule rule = compile("(age > 30 AND department = 'Sales') OR salary >= 50000.5");
+        assertTrue(ruleService.hasSlotRule(rule));
+        String input = "{\"age\": 35, \"department\": \"Sales\", \"salary\": 100}\n"
+                + "{\"age\": 30.5, \"department\": \"HR\", \"salary\": \"60000\", \"extra\": {\"a\": [1]}}\n"
+                + "\"text\"\n"
+                + "{\"age\": 20, \"department\": \"Sales\"}\n"
+                + "{\"age\": \"old\", \"department\": \"Sales\", \"salary\": 1}\n";
+
+        assertEquals(stream(rule, EvaluationBackend.INTERPRETER, input, 5), stream(rule, EvaluationBackend.SLOT, input, 5));
+    }
+
+    private List<Map<String, Object>> stream(CompiledRule rule, EvaluationBackend backend, String input,
+                                             long expectedCount) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = streamService.evaluateStream(rule, backend,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        assertEquals(expectedCount, count);
+
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readValue(line, Map.class));
+        }
+        return lines;
+    }
+
+    private CompiledRule compile(String ruleString) {
+        return new CompiledRule(ruleString, ruleService.createRule(ruleString));
+    }
+}
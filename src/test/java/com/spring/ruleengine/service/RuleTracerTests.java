@@ -0,0 +1,34 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.model.EvaluationTrace;
+import com.spring.ruleengine.model.EvaluationTrace.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RuleTracerTests {
+
+    @Test
+    void recordsLeafValuesAndShortCircuitedBranches() {
+        EvaluationTrace trace = RuleTracer.trace(
+                RuleParser.parse("(age > 30 AND salary > 50000) OR department = 'Sales'"),
+                Map.of("age", 25, "salary", 60000, "department", "HR"));
+
+        assertFalse(trace.getResult());
+        List<EvaluationTrace.Step> steps = trace.getSteps();
+        assertEquals(5, steps.size());
+        assertEquals(new EvaluationTrace.Step(0, "OR", Outcome.FALSE, null, null), steps.get(0));
+        assertEquals(new EvaluationTrace.Step(1, "AND", Outcome.FALSE, null, null), steps.get(1));
+        assertEquals(new EvaluationTrace.Step(2, "age > 30", Outcome.FALSE, "age", 25), steps.get(2));
+        assertEquals(Outcome.SKIPPED, steps.get(3).outcome());
+        assertNull(steps.get(3).value());
+        assertEquals(new EvaluationTrace.Step(1, "department = 'Sales'", Outcome.FALSE, "department", "HR"), steps.get(4));
+        assertEquals("OR=FALSE[AND=FALSE[age > 30 (age=25)=FALSE, salary > 50000=SKIPPED], "
+                + "department = 'Sales' (department=HR)=FALSE]", trace.toString());
+    }
+}
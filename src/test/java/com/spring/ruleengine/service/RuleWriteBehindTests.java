@@ -0,0 +1,93 @@
+package com.spring.ruleengine.service;
+
+import com.spring.ruleengine.config.RuleIdSequence;
+import com.spring.ruleengine.model.RuleEntity;
+import com.spring.ruleengine.repository.RuleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RuleWriteBehindTests {
+
+    @Autowired
+    private RuleWriteBehind ruleWriteBehind;
+
+    @Autowired
+    private RuleRepository ruleRepository;
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Autowired
+    private RuleIdSequence ruleIdSequence;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void acknowledgedSavesAreCommittedInOrder() {
+        List<String> rules = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            rules.add("age > " + i);
+        }
+
+        List<RuleEntity> saved = ruleWriteBehind.submitAll(rules).join();
+
+        assertEquals(rules.size(), saved.size());
+        for (int i = 0; i < rules.size(); i++) {
+            RuleEntity stored = ruleRepository.findById(saved.get(i).getId()).orElseThrow();
+            assertEquals(rules.get(i), stored.getRuleString());
+        }
+        assertTrue(ruleService.evaluateRule(ruleService.getCompiledRule(saved.get(5).getId()),
+                Map.of("age", 6), EvaluationBackend.INTERPRETER));
+    }
+
+    @Test
+    void oneFailingSaveDoesNotFailItsBatch() {
+        // A check constraint rejects exactly one of the rules, so its insert fails and the others do not
+        jdbcTemplate.execute("ALTER TABLE rule_entity ADD CONSTRAINT reject_poison CHECK (rule_string <> 'experience > 7')");
+        try {
+            List<CompletableFuture<RuleEntity>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(ruleWriteBehind.submit("experience > " + i));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                if (i == 7) {
+                    assertThrows(CompletionException.class, results.get(i)::join);
+                } else {
+                    RuleEntity saved = results.get(i).join();
+                    assertEquals("experience > " + i, ruleRepository.findById(saved.getId()).orElseThrow().getRuleString());
+                }
+            }
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE rule_entity DROP CONSTRAINT reject_poison");
+        }
+    }
+
+    @Test
+    void idSequenceIsMovedPastExistingIds() {
+        jdbcTemplate.update("INSERT INTO rule_entity (id, rule_string) VALUES (?, ?)", 10_000_000L, "age > 1");
+        try {
+            ruleIdSequence.align();
+            Long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + RuleEntity.ID_SEQUENCE, Long.class);
+            assertTrue(next > 10_000_000L + RuleEntity.ID_BLOCK_SIZE, "next value " + next);
+        } finally {
+            ruleRepository.deleteById(10_000_000L);
+        }
+    }
+}
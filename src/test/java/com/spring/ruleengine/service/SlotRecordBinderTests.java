@@ -0,0 +1,81 @@
+package com.spring.ruleengine.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.ruleengine.exception.InvalidDataFormatException;
+import com.spring.ruleengine.exception.MissingAttributeException;
+import com.spring.ruleengine.model.AttributeSchema;
+import com.spring.ruleengine.model.CompiledRule;
+import com.spring.ruleengine.model.SlotRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotRecordBinderTests {
+
+    private final RuleService ruleService = new RuleService();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void recordsBoundFromJsonEvaluateLikeMaps() throws IOException {
+        List<String> rules = List.of(
+                "age > 30 AND department = 'Sales'",
+                "salary >= 50000.5 OR experience < 3",
+                "gender = 'Female' AND maritalStatus != 'Single'",
+                "employmentType > 'Contract' OR creditScore <= 700");
+        List<String> records = List.of(
+                "{\"age\": 35, \"department\": \"Sales\", \"salary\": 50000.5, \"experience\": 1, \"gender\": \"Female\","
+                        + " \"maritalStatus\": \"Married\", \"employmentType\": \"Part-time\", \"creditScore\": 800}",
+                // Values outside the declared types and enum lists, plus an attribute outside the schema
+                "{\"age\": 30.5, \"department\": \"HR\", \"salary\": \"60000\", \"experience\": \"7\", \"gender\": \"X\","
+                        + " \"maritalStatus\": \"Single\", \"employmentType\": \"Intern\", \"creditScore\": 1e3,"
+                        + " \"nickname\": {\"a\": [1, 2]}}");
+
+        AttributeSchema schema = ruleService.getSchema();
+        for (String json : records) {
+            Map<String, Object> data = objectMapper.readValue(json, Map.class);
+            SlotRecord record = new SlotRecord(schema);
+            try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+                assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+                SlotRecordBinder.bind(parser, record);
+                assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+            }
+            for (String ruleString : rules) {
+                CompiledRule rule = compile(ruleString);
+                boolean expected = ruleService.evaluateRule(rule.getRoot(), data);
+                assertTrue(ruleService.hasSlotRule(rule));
+                assertEquals(expected, ruleService.evaluateRule(rule, record), ruleString + " on " + json);
+                assertEquals(expected, ruleService.evaluateRule(rule, SlotRecordBinder.bind(data, schema)));
+            }
+        }
+    }
+
+    @Test
+    void slotEvaluationReportsErrorsLikeMaps() {
+        CompiledRule rule = compile("age > 30 AND salary > 100");
+        AttributeSchema schema = ruleService.getSchema();
+
+        assertThrows(MissingAttributeException.class,
+                () -> ruleService.evaluateRule(rule, SlotRecordBinder.bind(Map.of("age", 40), schema)));
+        assertFalse(ruleService.evaluateRule(rule, SlotRecordBinder.bind(Map.of("age", 20), schema)));
+        assertThrows(InvalidDataFormatException.class,
+                () -> ruleService.evaluateRule(rule, SlotRecordBinder.bind(Map.of("age", "old", "salary", 1), schema)));
+
+        // Attributes outside the schema cannot be bound, so such rules are interpreted from the record's values
+        CompiledRule unknown = compile("age > 30 AND shoeSize > 40");
+        assertFalse(ruleService.hasSlotRule(unknown));
+        assertFalse(ruleService.evaluateRule(unknown, SlotRecordBinder.bind(Map.of("age", 20), schema)));
+    }
+
+    private CompiledRule compile(String ruleString) {
+        return new CompiledRule(ruleString, ruleService.createRule(ruleString));
+    }
+}